@@ -0,0 +1,102 @@
+package org.moddingx.packdev.benchmarks;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import org.moddingx.packdev.PackPaths;
+import org.moddingx.packdev.PackSettings;
+import org.moddingx.packdev.api.CurseProperties;
+import org.moddingx.packdev.cache.PackDevCache;
+import org.moddingx.packdev.platform.PlatformMatch;
+import org.moddingx.packdev.target.BaseTargetTask;
+import org.moddingx.packdev.target.CursePack;
+import org.moddingx.packdev.target.ModrinthPack;
+import org.moddingx.packdev.target.PackResolver;
+import org.moddingx.packdev.util.LoaderConstants;
+import org.moddingx.packdev.util.hash.ComputedHash;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Archive generation of the real CursePack and ModrinthPack targets.
+// Hashes and platform matches come from a warm PackDevCache and the resolved pack is shared between invocations,
+// so this measures the archive work only.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ArchiveBenchmark {
+
+    @Param({ "100", "2000" })
+    public int overrides;
+
+    @Param({ "50", "300" })
+    public int mods;
+
+    private BenchmarkEnvironment environment;
+    private BaseTargetTask<?> cursePack;
+    private BaseTargetTask<?> modrinthPack;
+
+    @Setup
+    public void setup() throws IOException {
+        this.environment = new BenchmarkEnvironment();
+        this.environment.createOverrides(this.overrides, this.overrides);
+
+        Random random = new Random(this.mods);
+        PackDevCache cache = this.environment.createCache();
+        List<JsonElement> modList = new ArrayList<>();
+        for (int i = 0; i < this.mods; i++) {
+            JsonObject json = new JsonObject();
+            json.addProperty("slug", "mod" + i);
+            modList.add(json);
+        }
+        List<SyntheticModFile> files = this.environment.platform.readModList(this.environment.project, cache, modList);
+        for (int i = 0; i < files.size(); i++) {
+            SyntheticModFile file = files.get(i);
+            byte[] sha1 = new byte[20];
+            byte[] sha512 = new byte[64];
+            random.nextBytes(sha1);
+            random.nextBytes(sha512);
+            file.addKnownHash("size", ComputedHash.ofSignedLong(random.nextInt(1 << 24)));
+            file.addKnownHash("sha1", ComputedHash.of(sha1, 160));
+            file.addKnownHash("sha512", ComputedHash.of(sha512, 512));
+            // Known matches, so the lookups don't query the platforms
+            file.setMatch(PlatformMatch.CURSE_PROJECT, Integer.toString(10000 + i));
+            file.setMatch(PlatformMatch.CURSE_FILE, Integer.toString(4000000 + i));
+            file.setMatch(PlatformMatch.MODRINTH_URL, file.downloadURL().toString());
+        }
+
+        PackSettings settings = new PackSettings(
+                "benchmark", "1.0.0", "1.20.1", LoaderConstants.FORGE, "47.2.0", 17, Optional.empty(),
+                new PackPaths(this.environment.project), cache.launcher(), true, new PackResolver(files, true), cache
+        );
+        this.cursePack = this.environment.project.getTasks().create("cursePack", CursePack.class, this.environment.platform, settings, files, new CurseProperties(1));
+        this.modrinthPack = this.environment.project.getTasks().create("modrinthPack", ModrinthPack.class, this.environment.platform, settings, files);
+        for (BaseTargetTask<?> task : List.of(this.cursePack, this.modrinthPack)) {
+            task.getDestinationDirectory().set(this.environment.root.toFile());
+            task.getArchiveFileName().set(task.getName() + ".zip");
+            task.warm();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        this.environment.close();
+    }
+
+    @Benchmark
+    public Path cursePack() throws IOException {
+        this.cursePack.rebuild();
+        return this.cursePack.getArchiveFile().get().getAsFile().toPath();
+    }
+
+    @Benchmark
+    public Path modrinthPack() throws IOException {
+        this.modrinthPack.rebuild();
+        return this.modrinthPack.getArchiveFile().get().getAsFile().toPath();
+    }
+}
@@ -0,0 +1,93 @@
+package org.moddingx.packdev.benchmarks;
+
+import org.apache.commons.io.file.PathUtils;
+import org.gradle.api.Project;
+import org.gradle.testfixtures.ProjectBuilder;
+import org.moddingx.launcherlib.util.Side;
+import org.moddingx.packdev.cache.PackDevCache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+// Throwaway gradle project with its own gradle user home, so benchmarks never touch the real PackDev cache.
+public class BenchmarkEnvironment implements AutoCloseable {
+
+    public final Path root;
+    public final Project project;
+    public final SyntheticPlatform platform;
+
+    public BenchmarkEnvironment() throws IOException {
+        this.root = Files.createTempDirectory("packdev-benchmark");
+        Path projectDir = Files.createDirectories(this.root.resolve("project"));
+        Path gradleHome = Files.createDirectories(this.root.resolve("gradle"));
+        this.project = ProjectBuilder.builder()
+                .withName("benchmark")
+                .withProjectDir(projectDir.toFile())
+                .withGradleUserHomeDir(gradleHome.toFile())
+                .build();
+        this.platform = new SyntheticPlatform();
+    }
+
+    public PackDevCache createCache() {
+        return new PackDevCache(this.project, this.platform);
+    }
+
+    public Path dataPath(Side side) {
+        return this.project.file("data/" + side.id).toPath();
+    }
+
+    // Writes small config-like files into the override directories of all sides.
+    public void createOverrides(int count, long seed) throws IOException {
+        Random random = new Random(seed);
+        Side[] sides = Side.values();
+        for (int i = 0; i < count; i++) {
+            Side side = sides[i % sides.length];
+            Path file = this.dataPath(side).resolve("config").resolve("mod" + (i % 50)).resolve("file" + i + ".toml");
+            Files.createDirectories(file.getParent());
+            StringBuilder sb = new StringBuilder();
+            int lines = 10 + random.nextInt(90);
+            for (int line = 0; line < lines; line++) {
+                sb.append("option").append(line).append(" = ").append(random.nextInt()).append("\n");
+            }
+            Files.writeString(file, sb.toString(), StandardCharsets.UTF_8);
+        }
+    }
+
+    // A jar with a mix of class-like random data and compressible resources. size is the uncompressed content size.
+    public static byte[] syntheticJar(long seed, int size) throws IOException {
+        Random random = new Random(seed);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size + 1024);
+        try (JarOutputStream jar = new JarOutputStream(out)) {
+            int written = 0;
+            int idx = 0;
+            while (written < size) {
+                int entrySize = Math.min(size - written, 1024 + random.nextInt(16384));
+                byte[] data = new byte[entrySize];
+                if (idx % 4 == 0) {
+                    byte[] text = ("{\"key" + idx + "\": \"value\", \"list\": [1, 2, 3]}\n").getBytes(StandardCharsets.UTF_8);
+                    for (int i = 0; i < entrySize; i++) data[i] = text[i % text.length];
+                    jar.putNextEntry(new JarEntry("assets/synthetic/data" + idx + ".json"));
+                } else {
+                    random.nextBytes(data);
+                    jar.putNextEntry(new JarEntry("org/moddingx/synthetic/Class" + idx + ".class"));
+                }
+                jar.write(data);
+                jar.closeEntry();
+                written += entrySize;
+                idx += 1;
+            }
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public void close() throws IOException {
+        PathUtils.deleteDirectory(this.root);
+    }
+}
@@ -0,0 +1,97 @@
+package org.moddingx.packdev.benchmarks;
+
+import org.moddingx.packdev.cache.PackDevCache;
+import org.moddingx.packdev.util.hash.ComputedHash;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// PackDevCache with an index.json of realistic size. Each entry holds the hashes a modpack build usually needs.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CacheBenchmark {
+
+    @Param({ "10000", "100000" })
+    public int entries;
+
+    private BenchmarkEnvironment environment;
+    private PackDevCache loadedCache;
+    private Random random;
+
+    @Setup
+    public void setup() throws IOException {
+        this.environment = new BenchmarkEnvironment();
+        this.random = new Random(this.entries);
+        PackDevCache cache = this.environment.createCache();
+        for (int i = 0; i < this.entries; i++) {
+            String key = "project" + i + "-" + (i * 31);
+            cache.updateHash(key, "size", ComputedHash.ofSignedLong(this.random.nextInt(1 << 26)));
+            cache.updateHash(key, "fingerprint", ComputedHash.of(this.random.nextInt() & 0xFFFFFFFFL, 32));
+            cache.updateHash(key, "sha1", randomHash(160));
+            cache.updateHash(key, "sha512", randomHash(512));
+        }
+        cache.save();
+        this.loadedCache = this.environment.createCache();
+        this.loadedCache.getHash("project0-0", "sha1");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        this.environment.close();
+    }
+
+    private ComputedHash randomHash(int bits) {
+        byte[] data = new byte[bits / 8];
+        this.random.nextBytes(data);
+        return ComputedHash.of(data, bits);
+    }
+
+    // Parses index.json
+    @Benchmark
+    public ComputedHash load(ChangedIndex changed) {
+        return this.environment.createCache().getHash("project0-0", "sha1");
+    }
+
+    // Copies the snapshot shared in the daemon, index.json is unchanged
+    @Benchmark
+    public ComputedHash loadSnapshot() {
+        return this.environment.createCache().getHash("project0-0", "sha1");
+    }
+
+    @Benchmark
+    public void save() {
+        // Saving is skipped if nothing changed
+        this.loadedCache.updateHash("project0-0", "size", ComputedHash.ofSignedLong(this.random.nextInt()));
+        this.loadedCache.save();
+    }
+
+    @Benchmark
+    public ComputedHash lookup() {
+        int i = this.random.nextInt(this.entries);
+        return this.loadedCache.getHash("project" + i + "-" + (i * 31), "sha512");
+    }
+
+    // Bumps the modification time of index.json before each invocation, so the daemon snapshot no longer matches
+    @State(Scope.Benchmark)
+    public static class ChangedIndex {
+
+        private Path index;
+        private long modified;
+
+        @Setup(Level.Invocation)
+        public void touch(CacheBenchmark benchmark) throws IOException {
+            if (this.index == null) {
+                this.index = benchmark.loadedCache.getBasePath().resolve("index.json");
+                this.modified = Files.getLastModifiedTime(this.index).toMillis();
+            }
+            this.modified += 1000;
+            Files.setLastModifiedTime(this.index, FileTime.fromMillis(this.modified));
+        }
+    }
+}
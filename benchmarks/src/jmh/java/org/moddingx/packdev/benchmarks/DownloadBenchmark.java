@@ -0,0 +1,47 @@
+package org.moddingx.packdev.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// Cold BaseModFile.cachedFile from the local stub server. Measures the download path without network latency.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DownloadBenchmark {
+
+    @Param({ "1048576", "16777216" })
+    public int size;
+
+    private BenchmarkEnvironment environment;
+    private StubHttpServer server;
+    private SyntheticModFile file;
+    private Path cachePath;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        this.environment = new BenchmarkEnvironment();
+        this.server = new StubHttpServer();
+        this.file = new SyntheticModFile(this.environment.project, this.environment.createCache(), "mod", this.server.serve("mod.jar", BenchmarkEnvironment.syntheticJar(this.size, this.size)));
+        this.cachePath = this.file.cachedFile();
+    }
+
+    @Setup(Level.Invocation)
+    public void evict() throws IOException {
+        Files.deleteIfExists(this.cachePath);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        this.server.close();
+        this.environment.close();
+    }
+
+    @Benchmark
+    public Path download() throws IOException {
+        return this.file.cachedFile();
+    }
+}
@@ -0,0 +1,77 @@
+package org.moddingx.packdev.benchmarks;
+
+import org.moddingx.packdev.util.curse.MurmurHasher;
+import org.moddingx.packdev.util.hash.ComputedHash;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class HashBenchmark {
+
+    @Param({ "65536", "1048576", "16777216" })
+    public int size;
+
+    private byte[] jar;
+    private byte[] sha512;
+    private ComputedHash hash;
+    private BigInteger stored;
+    private String storedString;
+
+    @Setup
+    public void setup() throws IOException, NoSuchAlgorithmException {
+        this.jar = BenchmarkEnvironment.syntheticJar(this.size, this.size);
+        this.sha512 = MessageDigest.getInstance("SHA-512").digest(this.jar);
+        this.hash = ComputedHash.of(this.sha512, 512);
+        this.stored = this.hash.store();
+        this.storedString = this.stored.toString(36);
+    }
+
+    @Benchmark
+    public int murmur() {
+        return MurmurHasher.hash(this.jar);
+    }
+
+    @Benchmark
+    public ComputedHash createFromBytes() {
+        return ComputedHash.of(this.sha512, 512);
+    }
+
+    // hexDigest is memoized per instance, so measure it on a fresh hash
+    @Benchmark
+    public String hexDigest() {
+        return ComputedHash.of(this.sha512, 512).hexDigest();
+    }
+
+    @Benchmark
+    public ComputedHash parseHex() {
+        return ComputedHash.of(this.hash.hexDigest(), 512);
+    }
+
+    @Benchmark
+    public BigInteger store() {
+        return this.hash.store();
+    }
+
+    @Benchmark
+    public ComputedHash load() {
+        return ComputedHash.load(this.stored);
+    }
+
+    // The round trip PackDevCache does for every hash in index.json
+    @Benchmark
+    public ComputedHash storeLoadString() {
+        return ComputedHash.load(new BigInteger(this.hash.store().toString(36), 36));
+    }
+
+    @Benchmark
+    public ComputedHash loadString() {
+        return ComputedHash.load(new BigInteger(this.storedString, 36));
+    }
+}
@@ -0,0 +1,50 @@
+package org.moddingx.packdev.benchmarks;
+
+import org.moddingx.packdev.util.hash.ComputedHash;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// BaseModFile.computeHashes on a file that is already in the PackDev file cache
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ModFileHashBenchmark {
+
+    @Param({ "1048576", "16777216" })
+    public int size;
+
+    @Param({ "size,sha1", "size,sha1,sha512", "fingerprint", "size,sha1,sha512,md5,fingerprint" })
+    public String hashes;
+
+    private BenchmarkEnvironment environment;
+    private StubHttpServer server;
+    private SyntheticModFile file;
+    private Set<String> hashSet;
+
+    @Setup
+    public void setup() throws IOException {
+        this.environment = new BenchmarkEnvironment();
+        this.server = new StubHttpServer();
+        this.file = new SyntheticModFile(this.environment.project, this.environment.createCache(), "mod", this.server.serve("mod.jar", BenchmarkEnvironment.syntheticJar(this.size, this.size)));
+        this.file.cachedFile();
+        this.hashSet = Arrays.stream(this.hashes.split(",")).collect(Collectors.toUnmodifiableSet());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        this.server.close();
+        this.environment.close();
+    }
+
+    @Benchmark
+    public Map<String, ComputedHash> computeHashes() throws NoSuchAlgorithmException, IOException {
+        return this.file.computeUncached(this.hashSet);
+    }
+}
@@ -0,0 +1,77 @@
+package org.moddingx.packdev.benchmarks;
+
+import org.gradle.api.Project;
+import org.moddingx.launcherlib.util.Artifact;
+import org.moddingx.launcherlib.util.Side;
+import org.moddingx.packdev.cache.PackDevCache;
+import org.moddingx.packdev.platform.BaseModFile;
+import org.moddingx.packdev.util.hash.ComputedHash;
+
+import java.io.IOException;
+import java.net.URI;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+public class SyntheticModFile extends BaseModFile {
+
+    private final String slug;
+    private final URI url;
+
+    public SyntheticModFile(Project project, PackDevCache cache, String slug, URI url) {
+        super(project, cache);
+        this.slug = slug;
+        this.url = url;
+    }
+
+    @Override
+    protected String fileKey() {
+        return this.slug;
+    }
+
+    // Bypasses the hash cache
+    public Map<String, ComputedHash> computeUncached(Set<String> hashes) throws NoSuchAlgorithmException, IOException {
+        return this.computeHashes(hashes);
+    }
+
+    @Override
+    public String projectSlug() {
+        return this.slug;
+    }
+
+    @Override
+    public String projectName() {
+        return this.slug;
+    }
+
+    @Override
+    public String fileName() {
+        return this.slug + ".jar";
+    }
+
+    @Override
+    public Side fileSide() {
+        return Side.COMMON;
+    }
+
+    @Override
+    public URI downloadURL() {
+        return this.url;
+    }
+
+    @Override
+    public URI projectURL() {
+        return this.url;
+    }
+
+    @Override
+    public Optional<Owner> projectOwner() {
+        return Optional.empty();
+    }
+
+    @Override
+    public Artifact createDependency() {
+        return Artifact.from("synthetic", this.slug, "1");
+    }
+}
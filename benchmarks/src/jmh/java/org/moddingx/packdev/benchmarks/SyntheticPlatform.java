@@ -0,0 +1,39 @@
+package org.moddingx.packdev.benchmarks;
+
+import com.google.gson.JsonElement;
+import org.gradle.api.Project;
+import org.moddingx.packdev.cache.PackDevCache;
+import org.moddingx.packdev.platform.ModdingPlatform;
+
+import java.net.URI;
+import java.util.Comparator;
+import java.util.List;
+
+// Platform without an api. The modlist only contains slugs, everything else is derived from them.
+public class SyntheticPlatform implements ModdingPlatform<SyntheticModFile> {
+
+    @Override
+    public String id() {
+        return "synthetic";
+    }
+
+    @Override
+    public void initialise(Project project) {
+        //
+    }
+
+    // Entries are objects with a slug and an optional download url
+    @Override
+    public List<SyntheticModFile> readModList(Project project, PackDevCache cache, List<JsonElement> files) {
+        return files.stream().map(JsonElement::getAsJsonObject).map(json -> {
+            String slug = json.get("slug").getAsString();
+            URI url = json.has("url") ? URI.create(json.get("url").getAsString()) : URI.create("https://cdn.example.org/" + slug + ".jar");
+            return new SyntheticModFile(project, cache, slug, url);
+        }).toList();
+    }
+
+    @Override
+    public Comparator<SyntheticModFile> internalOrder() {
+        return Comparator.comparing(SyntheticModFile::projectSlug);
+    }
+}
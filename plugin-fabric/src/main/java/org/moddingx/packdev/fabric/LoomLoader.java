@@ -13,10 +13,11 @@ import org.moddingx.packdev.PackPaths;
 import org.moddingx.packdev.PackSettings;
 import org.moddingx.packdev.loader.LoaderSettings;
 import org.moddingx.packdev.loader.ModLoader;
+import org.moddingx.packdev.loader.RemapSelection;
 import org.moddingx.packdev.platform.ModFile;
+import org.moddingx.packdev.run.SyncRunDataTask;
 import org.moddingx.packdev.util.Util;
 
-import java.io.File;
 import java.nio.file.Path;
 import java.util.List;
 
@@ -69,6 +70,9 @@ public abstract class LoomLoader implements ModLoader<Void> {
             settings.getApplyDependencyTransforms().set(true);
         });
         
+        // Remapping the whole pack on every import is slow for large packs, so only selected mods are remapped.
+        // The mods folder always gets all mods unchanged.
+        RemapSelection remap = RemapSelection.get(project);
         for (ModFile file : files) {
             Artifact artifact = file.createDependency();
             switch (file.fileSide()) {
@@ -76,8 +80,10 @@ public abstract class LoomLoader implements ModLoader<Void> {
                 case CLIENT -> project.getDependencies().add(clientMods.getName(), artifact.getDescriptor());
                 case SERVER -> project.getDependencies().add(serverMods.getName(), artifact.getDescriptor());
             }
-            // Add to source set for remapping
-            project.getDependencies().add(REMAP_CONFIGURATION, artifact.getDescriptor());
+            if (remap.shouldRemap(file)) {
+                // Add to source set for remapping
+                project.getDependencies().add(REMAP_CONFIGURATION, artifact.getDescriptor());
+            }
         }
         
         this.configureRun(project, paths, loom, "client", Side.CLIENT, clientMods);
@@ -117,19 +123,13 @@ public abstract class LoomLoader implements ModLoader<Void> {
         settings.defaultMainClass(side == Side.CLIENT ? Constants.Knot.KNOT_CLIENT : Constants.Knot.KNOT_SERVER);
         settings.runDir(workingDir);
 
-        // Delete old mods from the mods folder, so we correctly handle mod removals.
-        Delete deleteTask = project.getTasks().create("delete" + capitalized + "Data", Delete.class);
-        deleteTask.delete(new File(project.file(workingDir), "mods"));
-        
-        Copy copyTask = project.getTasks().create("copy" + capitalized + "Data", Copy.class);
-        copyTask.dependsOn(deleteTask);
-        copyTask.setDestinationDir(project.file(workingDir));
-        for (Path path : paths.getOverridePaths(side)) {
-            copyTask.from(project.fileTree(path.toFile()));
-        }
+        // Stale mods are removed from the mods folder, so we correctly handle mod removals.
+        SyncRunDataTask copyTask = project.getTasks().create("copy" + capitalized + "Data", SyncRunDataTask.class);
+        copyTask.getWorkingDirectory().set(project.file(workingDir));
+        copyTask.getOverridePaths().set(paths.getOverridePaths(side).stream().map(Path::toFile).toList());
         
         // Put all mods into the mods folder
-        copyTask.from(configuration, spec -> spec.into("mods"));
+        copyTask.getMods().from(configuration);
         
         project.getGradle().projectsEvaluated(g -> {
             TaskProvider<Task> prepareTask = project.getTasks().named(side == Side.CLIENT ? "configureClientLaunch" : "configureLaunch");
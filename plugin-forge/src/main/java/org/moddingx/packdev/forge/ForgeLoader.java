@@ -11,8 +11,6 @@ import org.gradle.api.Project;
 import org.gradle.api.Task;
 import org.gradle.api.artifacts.Configuration;
 import org.gradle.api.artifacts.ExternalModuleDependency;
-import org.gradle.api.tasks.Copy;
-import org.gradle.api.tasks.Delete;
 import org.gradle.api.tasks.SourceSet;
 import org.gradle.api.tasks.SourceSetContainer;
 import org.gradle.api.tasks.compile.JavaCompile;
@@ -22,7 +20,9 @@ import org.moddingx.packdev.PackPaths;
 import org.moddingx.packdev.PackSettings;
 import org.moddingx.packdev.loader.LoaderSettings;
 import org.moddingx.packdev.loader.ModLoader;
+import org.moddingx.packdev.loader.RemapSelection;
 import org.moddingx.packdev.platform.ModFile;
+import org.moddingx.packdev.run.SyncRunDataTask;
 import org.moddingx.packdev.util.Util;
 
 import java.io.File;
@@ -49,7 +49,11 @@ public class ForgeLoader implements ModLoader<Void> {
         Configuration compileOnly = project.getConfigurations().getByName("compileOnly");
         compileOnly.extendsFrom(clientMods, serverMods);
         
+        // Each deobfuscated mod is remapped separately by ForgeGradle which is slow for large packs.
+        // Mods that are not selected for remapping are used as they are. This works as long as the
+        // mapping channel matches the names used at runtime, which is the case with the default srg channel.
         DependencyManagementExtension fgExt = Util.getExtension(project, DependencyManagementExtension.EXTENSION_NAME, DependencyManagementExtension.class);
+        RemapSelection remap = RemapSelection.get(project);
         for (ModFile file : files) {
             String cfg = switch (file.fileSide()) {
                 case COMMON -> "implementation";
@@ -58,7 +62,11 @@ public class ForgeLoader implements ModLoader<Void> {
             };
             Artifact artifact = file.createDependency();
             ExternalModuleDependency dependency = (ExternalModuleDependency) project.getDependencies().create(artifact.getDescriptor());
-            project.getDependencies().add(cfg, fgExt.deobf(dependency));
+            if (remap.shouldRemap(file)) {
+                project.getDependencies().add(cfg, fgExt.deobf(dependency));
+            } else {
+                project.getDependencies().add(cfg, dependency);
+            }
         }
         
         SourceSetContainer sourceSets = Util.getJavaExtension(project).getSourceSets();
@@ -86,6 +94,12 @@ public class ForgeLoader implements ModLoader<Void> {
         UserDevExtension mcExt = Util.getExtension(project, UserDevExtension.EXTENSION_NAME, UserDevExtension.class);
         
         if (settings.officialMappings()) {
+            if (!RemapSelection.get(project).isAll()) {
+                System.err.println("""
+                                   Using official mappings without remapping all mods.
+                                   Mods that are not remapped won't work when running the game from the IDE.
+                                   """);
+            }
             mcExt.mappings("official", settings.minecraftVersion());
         } else {
             mcExt.mappings(SrgChannelProvider.CHANNEL, settings.minecraftVersion());
@@ -121,16 +135,10 @@ public class ForgeLoader implements ModLoader<Void> {
         });
 
         // Required if mods are provided through the mods folder (because they don't exist on the platform)
-        // Delete old mods from the mods folder, so we correctly handle mod removals.
-        Delete deleteTask = project.getTasks().create("delete" + capitalized + "Data", Delete.class);
-        deleteTask.delete(new File(workingDir, "mods"));
-        
-        Copy copyTask = project.getTasks().create("copy" + capitalized + "Data", Copy.class);
-        copyTask.dependsOn(deleteTask);
-        copyTask.setDestinationDir(workingDir);
-        for (Path path : paths.getOverridePaths(side)) {
-            copyTask.from(project.fileTree(path.toFile()));
-        }
+        // Stale mods are removed from the mods folder, so we correctly handle mod removals.
+        SyncRunDataTask copyTask = project.getTasks().create("copy" + capitalized + "Data", SyncRunDataTask.class);
+        copyTask.getWorkingDirectory().set(workingDir);
+        copyTask.getOverridePaths().set(paths.getOverridePaths(side).stream().map(Path::toFile).toList());
 
         // Create some directories because Forge 1.17+ requires it
         JavaCompile jc = Util.findTask(project, "compileJava", JavaCompile.class);
@@ -15,6 +15,7 @@ import org.moddingx.packdev.PackSettings;
 import org.moddingx.packdev.loader.LoaderSettings;
 import org.moddingx.packdev.loader.ModLoader;
 import org.moddingx.packdev.platform.ModFile;
+import org.moddingx.packdev.run.SyncRunDataTask;
 import org.moddingx.packdev.util.Util;
 
 import java.io.File;
@@ -129,17 +130,10 @@ public class NeoForgeLoader implements ModLoader<Void> {
         File workingDir = project.file("runs/" + name);
 
         // Required if mods are provided through the mods folder (because they don't exist on the platform)
-        // Delete old mods from the mods folder, so we correctly handle mod removals.
-        TaskProvider<Delete> deleteTask = project.getTasks().register("delete" + capitalized + "Data", Delete.class, task -> {
-            task.delete(new File(workingDir, "mods"));
-        });
-        
-        TaskProvider<Copy> copyTask = project.getTasks().register("copy" + capitalized + "Data", Copy.class, task -> {
-            task.dependsOn(deleteTask);
-            task.setDestinationDir(workingDir);
-            for (Path path : paths.getOverridePaths(side)) {
-                task.from(project.fileTree(path.toFile()));
-            }
+        // Stale mods are removed from the mods folder, so we correctly handle mod removals.
+        TaskProvider<SyncRunDataTask> copyTask = project.getTasks().register("copy" + capitalized + "Data", SyncRunDataTask.class, task -> {
+            task.getWorkingDirectory().set(workingDir);
+            task.getOverridePaths().set(paths.getOverridePaths(side).stream().map(Path::toFile).toList());
         });
 
         runs.create(name, run -> {
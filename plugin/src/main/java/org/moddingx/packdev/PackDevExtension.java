@@ -9,6 +9,7 @@ import org.gradle.api.Action;
 import org.moddingx.packdev.api.CurseProperties;
 import org.moddingx.packdev.loader.LoaderSettings;
 import org.moddingx.packdev.loader.LoaderSettingsConsumer;
+import org.moddingx.packdev.util.PackDevExecutor;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -20,6 +21,7 @@ public class PackDevExtension extends GroovyObjectSupport {
     public static final String EXTENSION_NAME = "modpack";
 
     private final TargetBuilder targets;
+    private final ConcurrencyBuilder concurrency;
     private final LoaderSettingsConsumer loaderSettingsAcceptor;
     
     @Nullable private String loaderVersion;
@@ -27,6 +29,7 @@ public class PackDevExtension extends GroovyObjectSupport {
 
     public PackDevExtension(LoaderSettingsConsumer loaderSettingsAcceptor) {
         this.targets = new TargetBuilder();
+        this.concurrency = new ConcurrencyBuilder();
         this.loaderSettingsAcceptor = loaderSettingsAcceptor;
         this.loaderVersion = null;
         this.author = null;
@@ -74,6 +77,20 @@ public class PackDevExtension extends GroovyObjectSupport {
     public void targets(Action<TargetBuilder> action) {
         action.execute(this.targets);
     }
+
+    public void concurrency(@DelegatesTo(value = ConcurrencyBuilder.class, strategy = Closure.DELEGATE_FIRST) Closure<?> closure) {
+        closure.setDelegate(this.concurrency);
+        closure.setResolveStrategy(Closure.DELEGATE_FIRST);
+        if (closure.getMaximumNumberOfParameters() == 0) {
+            closure.call();
+        } else {
+            closure.call(this.concurrency);
+        }
+    }
+
+    public void concurrency(Action<ConcurrencyBuilder> action) {
+        action.execute(this.concurrency);
+    }
     
     @Internal
     public String getLoaderVersion() {
@@ -90,6 +107,11 @@ public class PackDevExtension extends GroovyObjectSupport {
     public Map<String, Optional<Object>> getAllTargets() {
         return Map.copyOf(this.targets.targets);
     }
+
+    @Internal
+    public PackDevExecutor.Settings getConcurrency() {
+        return new PackDevExecutor.Settings(this.concurrency.perHost, this.concurrency.cpuThreads, this.concurrency.ioThreads, this.concurrency.virtualThreads);
+    }
     
     public static class TargetBuilder {
         
@@ -111,6 +133,10 @@ public class PackDevExtension extends GroovyObjectSupport {
             this.target("server");
         }
         
+        public void offline() {
+            this.target("offline");
+        }
+        
         public void multimc() {
             this.target("multimc");
         }
@@ -128,6 +154,38 @@ public class PackDevExtension extends GroovyObjectSupport {
         }
     }
     
+    public static class ConcurrencyBuilder {
+
+        private int perHost = PackDevExecutor.Settings.DEFAULT.perHost();
+        private int cpuThreads = PackDevExecutor.Settings.DEFAULT.cpuThreads();
+        private int ioThreads = PackDevExecutor.Settings.DEFAULT.ioThreads();
+        private boolean virtualThreads = PackDevExecutor.Settings.DEFAULT.virtualThreads();
+
+        private ConcurrencyBuilder() {
+            //
+        }
+
+        // Maximum number of concurrent requests and downloads per host
+        public void perHost(int perHost) {
+            this.perHost = perHost;
+        }
+
+        // Number of threads for hashing and reading archives
+        public void cpuThreads(int cpuThreads) {
+            this.cpuThreads = cpuThreads;
+        }
+
+        // Maximum number of platform threads per parallel I/O operation, if virtual threads are disabled
+        public void ioThreads(int ioThreads) {
+            this.ioThreads = ioThreads;
+        }
+
+        // Whether blocking I/O uses virtual threads. If disabled, platform threads limited by ioThreads are used.
+        public void virtualThreads(boolean virtualThreads) {
+            this.virtualThreads = virtualThreads;
+        }
+    }
+    
     public static class LoaderBuilder {
         
         private boolean officialMappings = false;
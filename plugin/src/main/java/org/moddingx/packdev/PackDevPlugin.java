@@ -11,19 +11,35 @@ import org.gradle.api.Task;
 import org.gradle.api.artifacts.Configuration;
 import org.gradle.api.artifacts.Dependency;
 import org.gradle.api.artifacts.ExternalModuleDependency;
+import org.gradle.api.provider.Provider;
 import org.gradle.api.tasks.SourceSetContainer;
+import org.gradle.api.tasks.TaskProvider;
 import org.gradle.api.tasks.bundling.AbstractArchiveTask;
 import org.gradle.build.event.BuildEventsListenerRegistry;
 import org.gradle.jvm.toolchain.JavaLanguageVersion;
 import org.moddingx.launcherlib.util.Side;
+import org.moddingx.packdev.cache.ExportCacheTask;
+import org.moddingx.packdev.cache.ImportCacheTask;
+import org.moddingx.packdev.cache.LockModListTask;
+import org.moddingx.packdev.cache.WarmCacheTask;
+import org.moddingx.packdev.check.CheckDependenciesTask;
+import org.moddingx.packdev.check.CheckModUpdatesTask;
+import org.moddingx.packdev.check.CheckPackTask;
+import org.moddingx.packdev.cache.ModListLock;
 import org.moddingx.packdev.cache.PackDevCache;
 import org.moddingx.packdev.loader.LoaderSettingsConsumer;
 import org.moddingx.packdev.loader.ModLoader;
+import org.moddingx.packdev.metrics.MetricsService;
 import org.moddingx.packdev.platform.ModFile;
 import org.moddingx.packdev.platform.ModdingPlatform;
+import org.moddingx.packdev.run.WatchPackTask;
+import org.moddingx.packdev.target.PackResolver;
+import org.moddingx.packdev.target.ResolvePackTask;
 import org.moddingx.packdev.util.DependencyConstants;
 import org.moddingx.packdev.util.MoonstoneTask;
+import org.moddingx.packdev.util.PackDevExecutor;
 import org.moddingx.packdev.util.Util;
+import org.moddingx.packdev.util.multimc.MultiMcAPI;
 
 import javax.inject.Inject;
 import java.io.IOException;
@@ -96,7 +112,32 @@ public abstract class PackDevPlugin implements Plugin<Project> {
         }
         
         PackDevCache cache = new PackDevCache(project, platform);
+        Path lockFile = project.file(ModListLock.FILE_NAME).toPath();
+        if (Files.isRegularFile(lockFile)) {
+            try {
+                ModListLock lock = ModListLock.load(lockFile);
+                if (platform.id().equals(lock.platform())) {
+                    cache.useLock(lock);
+                } else {
+                    System.err.println("Warning: Ignoring " + ModListLock.FILE_NAME + ": It was generated for platform " + lock.platform() + ".");
+                }
+            } catch (IOException e) {
+                System.err.println("Warning: Ignoring " + ModListLock.FILE_NAME + ": " + e.getMessage());
+            }
+        }
         this.getEventRegistry().onTaskCompletion(project.provider(() -> e -> cache.save()));
+        MultiMcAPI.useCache(cache.getBasePath().resolve("multimc"), cache.isOffline());
+        
+        Object metricsProperty = project.getProperties().get(MetricsService.PROPERTY);
+        if (metricsProperty != null && !"false".equalsIgnoreCase(metricsProperty.toString().strip())) {
+            // The service resets the metrics when it is created and writes the report once the build has finished.
+            // Registering it as a task completion listener creates it in every build, also when loaded from the configuration cache.
+            Provider<MetricsService> metrics = project.getGradle().getSharedServices().registerIfAbsent("packdevMetrics", MetricsService.class, spec -> {
+                spec.getParameters().getReportDirectory().set(project.getLayout().getBuildDirectory().dir("packdev/reports"));
+                spec.getParameters().getConsoleSummary().set("console".equalsIgnoreCase(metricsProperty.toString().strip()));
+            });
+            this.getEventRegistry().onTaskCompletion(metrics);
+        }
         
         if (!project.getPlugins().hasPlugin("java")) project.getPlugins().apply("java");
         int javaVersion = cache.getJavaVersion(minecraftVersion);
@@ -116,6 +157,13 @@ public abstract class PackDevPlugin implements Plugin<Project> {
         
         platform.initialise(project);
         List<ModFile> files = List.copyOf(platform.readModList(project, cache, fileData));
+        project.getTasks().register("lockModList", LockModListTask.class, cache, platform.id(), minecraftVersion, files);
+        project.getTasks().register("checkPack", CheckPackTask.class, files);
+        project.getTasks().register("warmPackDevCache", WarmCacheTask.class, cache, minecraftVersion, files);
+        project.getTasks().register("exportPackDevCache", ExportCacheTask.class, cache, platform.id());
+        project.getTasks().register("importPackDevCache", ImportCacheTask.class, cache, platform.id());
+        project.getTasks().register("checkDependencies", CheckDependenciesTask.class, files, loaderId, minecraftVersion, cache.isOffline());
+        project.getTasks().register("checkModUpdates", CheckModUpdatesTask.class, files, loaderId, minecraftVersion, cache.isOffline());
         
         @SuppressWarnings("unchecked")
         ModLoader<T> loaderInstance = (ModLoader<T>) PackDevRegistry.getAndApplyLoader(project, loaderId);
@@ -132,6 +180,7 @@ public abstract class PackDevPlugin implements Plugin<Project> {
         PackDevExtension ext = project.getExtensions().create(PackDevExtension.EXTENSION_NAME, PackDevExtension.class, loaderSettingsAcceptor);
         
         project.afterEvaluate(p -> {
+            PackDevExecutor.configure(ext.getConcurrency());
             project.getTasks().register("moonstone", MoonstoneTask.class, t -> t.classpath(project.provider(moonstone::resolve)));
             
             PackSettings settings = new PackSettings(
@@ -139,11 +188,12 @@ public abstract class PackDevPlugin implements Plugin<Project> {
                     Objects.requireNonNull(p.getVersion(), "Project version not set").toString(),
                     minecraftVersion, loaderId, ext.getLoaderVersion(), javaVersion,
                     Optional.ofNullable(ext.getAuthor()),
-                    paths, cache.launcher()
+                    paths, cache.launcher(), cache.isOffline(), new PackResolver(files, cache.isOffline()), cache
             );
             
             loaderInstance.afterEvaluate(p, settings, loaderData);
 
+            TaskProvider<ResolvePackTask> resolvePackTask = project.getTasks().register("resolvePack", ResolvePackTask.class, settings.resolver());
             Task buildTargetsTask = project.getTasks().create("buildTargets");
             Task buildTask = project.getTasks().findByName("build");
             if (buildTask != null) buildTask.dependsOn(buildTargetsTask);
@@ -154,13 +204,15 @@ public abstract class PackDevPlugin implements Plugin<Project> {
             } else {
                 targets.entrySet().stream()
                         .sorted(Map.Entry.comparingByKey())
-                        .forEach(target -> addBuildTask(project, target.getKey(), platform, settings, files, target.getValue().orElse(null), buildTargetsTask));
+                        .forEach(target -> addBuildTask(project, target.getKey(), platform, settings, files, target.getValue().orElse(null), resolvePackTask, buildTargetsTask));
             }
+            project.getTasks().register("watchPack", WatchPackTask.class, paths);
         });
     }
 
-    private static void addBuildTask(Project project, String id, ModdingPlatform<?> platform, PackSettings settings, List<ModFile> files, @Nullable Object properties, Task buildTargetsTask) {
+    private static void addBuildTask(Project project, String id, ModdingPlatform<?> platform, PackSettings settings, List<ModFile> files, @Nullable Object properties, TaskProvider<ResolvePackTask> resolvePackTask, Task buildTargetsTask) {
         Task task = PackDevRegistry.createTargetTask(project, id, platform, settings, files, properties);
+        task.dependsOn(resolvePackTask);
         if (task instanceof AbstractArchiveTask archive) {
             archive.getDestinationDirectory().set(project.file("build").toPath().resolve("target").toFile());
             archive.getArchiveBaseName().convention(project.provider(project::getName));
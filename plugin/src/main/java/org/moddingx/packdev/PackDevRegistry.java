@@ -13,6 +13,7 @@ import org.moddingx.packdev.platform.modrinth.ModrinthPlatform;
 import org.moddingx.packdev.target.CursePack;
 import org.moddingx.packdev.target.ModrinthPack;
 import org.moddingx.packdev.target.MultiMcPack;
+import org.moddingx.packdev.target.OfflineServerPack;
 import org.moddingx.packdev.target.ServerPack;
 import org.moddingx.packdev.util.LoaderConstants;
 import org.moddingx.packdev.util.Util;
@@ -39,6 +40,7 @@ public class PackDevRegistry {
         registerTarget("curse", CursePack.class, CurseProperties.class);
         registerTarget("modrinth", ModrinthPack.class);
         registerTarget("server", ServerPack.class);
+        registerTarget("offline", OfflineServerPack.class);
         registerTarget("multimc", MultiMcPack.class);
     }
     
@@ -1,14 +1,12 @@
 package org.moddingx.packdev;
 
 import jakarta.annotation.Nullable;
-import org.apache.commons.io.file.PathUtils;
 import org.gradle.api.Project;
 import org.moddingx.launcherlib.util.Side;
+import org.moddingx.packdev.util.file.FileOverlay;
 
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -40,24 +38,15 @@ public class PackPaths {
         return Collections.unmodifiableList(list);
     }
     
+    public FileOverlay getOverlay(@Nullable Side side) throws IOException {
+        return FileOverlay.of(this.getOverridePaths(side));
+    }
+    
     public void copyAllDataTo(Path target, @Nullable Side side) throws IOException {
-        if (!Files.isDirectory(target)) {
-            Files.createDirectories(target);
-        }
-        for (Path src : this.getOverridePaths(side)) {
-            if (Files.isDirectory(src)) {
-                PathUtils.copyDirectory(src, target, StandardCopyOption.REPLACE_EXISTING);
-            }
-        }
+        this.getOverlay(side).copyTo(target);
     }
 
     public void copyOverrideDataTo(Path target, Side side) throws IOException {
-        if (!Files.isDirectory(target)) {
-            Files.createDirectories(target);
-        }
-        Path src = this.getPath(side);
-        if (Files.isDirectory(src)) {
-            PathUtils.copyDirectory(src, target, StandardCopyOption.REPLACE_EXISTING);
-        }
+        FileOverlay.of(List.of(this.getPath(side))).copyTo(target);
     }
 }
@@ -1,6 +1,8 @@
 package org.moddingx.packdev;
 
 import org.moddingx.launcherlib.launcher.Launcher;
+import org.moddingx.packdev.cache.PackDevCache;
+import org.moddingx.packdev.target.PackResolver;
 
 import java.util.Optional;
 
@@ -13,5 +15,8 @@ public record PackSettings(
         int java,
         Optional<String> author,
         PackPaths paths,
-        Launcher launcher
+        Launcher launcher,
+        boolean offline,
+        PackResolver resolver,
+        PackDevCache cache
 ) {}
@@ -0,0 +1,206 @@
+package org.moddingx.packdev.cache;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.moddingx.packdev.metrics.PackDevMetrics;
+import org.moddingx.packdev.util.PackDevExecutor;
+import org.moddingx.packdev.util.hash.ComputedHash;
+import org.moddingx.packdev.util.hash.HashAlgorithm;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+// A portable copy of the PackDev cache of one platform. The archive starts with a manifest, that lists size and sha256
+// of every file in it. Imports verify each file against the manifest before it is moved into the cache.
+// Jars are stored without compression, they are already compressed.
+public class CacheSnapshot {
+
+    public static final String MANIFEST = "packdev-cache.json";
+    public static final String INDEX = "index.json";
+    private static final int FORMAT = 1;
+    private static final Logger LOGGER = Logging.getLogger(CacheSnapshot.class);
+
+    public static void export(PackDevCache cache, String platform, Path archive) throws IOException {
+        cache.save();
+        Path basePath = cache.getBasePath();
+        List<Path> paths;
+        if (Files.isDirectory(basePath)) {
+            try (Stream<Path> stream = Files.walk(basePath)) {
+                // Skip temporary files of downloads that are still running
+                paths = stream.filter(Files::isRegularFile).filter(p -> !p.getFileName().toString().endsWith(".part")).sorted().toList();
+            }
+        } else {
+            paths = List.of();
+        }
+        List<FileEntry> entries = PackDevExecutor.mapCpu(paths, path -> FileEntry.read(basePath, path));
+
+        JsonObject files = new JsonObject();
+        for (FileEntry entry : entries) {
+            JsonObject json = new JsonObject();
+            json.addProperty("size", entry.size());
+            json.addProperty("sha256", entry.sha256());
+            files.add(entry.name(), json);
+        }
+        JsonObject manifest = new JsonObject();
+        manifest.addProperty("format", FORMAT);
+        manifest.addProperty("platform", platform);
+        manifest.add("files", files);
+
+        Files.createDirectories(archive.toAbsolutePath().getParent());
+        Path temp = Files.createTempFile(archive.toAbsolutePath().getParent(), archive.getFileName().toString(), ".part");
+        try {
+            try (PackDevMetrics.Timer timer = PackDevMetrics.time("cache.export"); ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(temp))) {
+                out.putNextEntry(new ZipEntry(MANIFEST));
+                out.write((PackDevCache.GSON.toJson(manifest) + "\n").getBytes(StandardCharsets.UTF_8));
+                out.closeEntry();
+                for (FileEntry entry : entries) {
+                    ZipEntry zipEntry = new ZipEntry(entry.name());
+                    if (entry.name().endsWith(".jar")) {
+                        zipEntry.setMethod(ZipEntry.STORED);
+                        zipEntry.setSize(entry.size());
+                        zipEntry.setCompressedSize(entry.size());
+                        zipEntry.setCrc(entry.crc());
+                    }
+                    out.putNextEntry(zipEntry);
+                    Files.copy(entry.path(), out);
+                    out.closeEntry();
+                }
+            }
+            try {
+                Files.move(temp, archive, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, archive, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        LOGGER.lifecycle("Exported " + entries.size() + " files of the PackDev cache to " + archive.toAbsolutePath().normalize());
+    }
+
+    // Files already in the cache are verified against the manifest, but never replaced.
+    public static void importFrom(PackDevCache cache, String platform, Path archive) throws IOException {
+        Path basePath = cache.getBasePath();
+        Files.createDirectories(basePath);
+        Map<String, FileInfo> manifest = null;
+        Set<String> seen = new HashSet<>();
+        Path index = null;
+        int added = 0;
+        try (PackDevMetrics.Timer timer = PackDevMetrics.time("cache.import"); ZipInputStream in = new ZipInputStream(Files.newInputStream(archive))) {
+            ZipEntry entry;
+            while ((entry = in.getNextEntry()) != null) {
+                if (manifest == null) {
+                    if (!MANIFEST.equals(entry.getName())) {
+                        throw new IOException("Not a PackDev cache snapshot: " + archive);
+                    }
+                    manifest = readManifest(new String(in.readAllBytes(), StandardCharsets.UTF_8), platform);
+                    continue;
+                }
+                String name = entry.getName();
+                FileInfo expected = manifest.get(name);
+                if (entry.isDirectory()) continue;
+                if (expected == null || !seen.add(name)) {
+                    throw new IOException("Unexpected file in PackDev cache snapshot: " + name);
+                }
+                Path target = basePath.resolve(name).toAbsolutePath().normalize();
+                if (!target.startsWith(basePath) || target.equals(basePath)) {
+                    throw new IOException("Invalid path in PackDev cache snapshot: " + name);
+                }
+                if (INDEX.equals(name)) {
+                    // The index is merged into the cache once the whole snapshot is verified
+                    index = Files.createTempFile(basePath, INDEX, ".part");
+                    extract(in, index, expected, name);
+                } else if (Files.exists(target)) {
+                    extract(in, null, expected, name);
+                } else {
+                    Files.createDirectories(target.getParent());
+                    Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".part");
+                    try {
+                        extract(in, temp, expected, name);
+                        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+                        added += 1;
+                    } finally {
+                        Files.deleteIfExists(temp);
+                    }
+                }
+            }
+            if (manifest == null) {
+                throw new IOException("Not a PackDev cache snapshot: " + archive);
+            }
+            Set<String> missing = new TreeSet<>(manifest.keySet());
+            missing.removeAll(seen);
+            if (!missing.isEmpty()) {
+                throw new IOException("PackDev cache snapshot is incomplete. Missing: " + String.join(", ", missing));
+            }
+            if (index != null) cache.merge(index);
+        } finally {
+            if (index != null) Files.deleteIfExists(index);
+        }
+        LOGGER.lifecycle("Imported " + added + " of " + (manifest.size() - (manifest.containsKey(INDEX) ? 1 : 0)) + " files into the PackDev cache.");
+    }
+
+    private static Map<String, FileInfo> readManifest(String data, String platform) throws IOException {
+        try {
+            JsonObject json = PackDevCache.GSON.fromJson(data, JsonObject.class);
+            if (json.get("format").getAsInt() != FORMAT) {
+                throw new IOException("Unsupported PackDev cache snapshot format: " + json.get("format").getAsInt());
+            }
+            if (!platform.equals(json.get("platform").getAsString())) {
+                throw new IOException("PackDev cache snapshot is for platform " + json.get("platform").getAsString() + ", not " + platform);
+            }
+            Map<String, FileInfo> files = new HashMap<>();
+            for (Map.Entry<String, JsonElement> entry : json.getAsJsonObject("files").entrySet()) {
+                JsonObject file = entry.getValue().getAsJsonObject();
+                files.put(entry.getKey(), new FileInfo(file.get("size").getAsLong(), file.get("sha256").getAsString()));
+            }
+            return files;
+        } catch (JsonParseException | IllegalStateException | NullPointerException e) {
+            throw new IOException("Invalid PackDev cache snapshot manifest", e);
+        }
+    }
+
+    // Copies the current zip entry while hashing it. Without a target, the entry is only verified.
+    private static void extract(InputStream in, Path target, FileInfo expected, String name) throws IOException {
+        MessageDigest digest = HashAlgorithm.SHA256.createDigest();
+        InputStream current = new DigestInputStream(in, digest);
+        long size;
+        try (OutputStream out = target == null ? OutputStream.nullOutputStream() : Files.newOutputStream(target)) {
+            size = current.transferTo(out);
+        }
+        String sha256 = ComputedHash.of(digest.digest(), HashAlgorithm.SHA256.bits).hexDigest();
+        if (size != expected.size() || !sha256.equals(expected.sha256())) {
+            throw new IOException("PackDev cache snapshot is corrupt: " + name + " does not match the manifest.");
+        }
+    }
+
+    private record FileInfo(long size, String sha256) {}
+
+    private record FileEntry(String name, Path path, long size, String sha256, long crc) {
+
+        public static FileEntry read(Path basePath, Path path) throws IOException {
+            MessageDigest digest = HashAlgorithm.SHA256.createDigest();
+            CRC32 crc = new CRC32();
+            long size;
+            try (InputStream in = new DigestInputStream(new CheckedInputStream(Files.newInputStream(path), crc), digest)) {
+                size = in.transferTo(OutputStream.nullOutputStream());
+            }
+            StringJoiner name = new StringJoiner("/");
+            basePath.relativize(path).forEach(part -> name.add(part.toString()));
+            return new FileEntry(name.toString(), path, size, ComputedHash.of(digest.digest(), HashAlgorithm.SHA256.bits).hexDigest(), crc.getValue());
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package org.moddingx.packdev.cache;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.api.tasks.options.Option;
+
+import javax.inject.Inject;
+import java.io.IOException;
+
+// Writes a snapshot of the PackDev cache, for example to bake into a CI image. See CacheSnapshot.
+public abstract class ExportCacheTask extends DefaultTask {
+
+    private final PackDevCache cache;
+    private final String platform;
+
+    @Inject
+    public ExportCacheTask(PackDevCache cache, String platform) {
+        this.cache = cache;
+        this.platform = platform;
+        this.getSnapshotFile().convention(this.getProject().getLayout().getBuildDirectory().file("packdev/packdev-cache.zip"));
+        // The cache lives outside the project
+        this.getOutputs().upToDateWhen(t -> false);
+    }
+
+    @Internal
+    public abstract RegularFileProperty getSnapshotFile();
+
+    @Option(option = "file", description = "The snapshot archive to write.")
+    public void setSnapshotPath(String path) {
+        this.getSnapshotFile().set(this.getProject().file(path));
+    }
+
+    @TaskAction
+    public void export() throws IOException {
+        CacheSnapshot.export(this.cache, this.platform, this.getSnapshotFile().get().getAsFile().toPath());
+    }
+}
@@ -0,0 +1,19 @@
+package org.moddingx.packdev.cache;
+
+import jakarta.annotation.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Objects;
+
+// Size, modification time and inode of a file in the PackDev cache, recorded after the file was verified.
+// As long as these match, the file is assumed unchanged. The inode is not available on all file systems.
+public record FileStat(long size, long modified, @Nullable String inode) {
+
+    public static FileStat read(Path path) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        return new FileStat(attributes.size(), attributes.lastModifiedTime().toMillis(), Objects.toString(attributes.fileKey(), null));
+    }
+}
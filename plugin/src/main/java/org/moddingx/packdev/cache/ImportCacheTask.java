@@ -0,0 +1,40 @@
+package org.moddingx.packdev.cache;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.api.tasks.options.Option;
+
+import javax.inject.Inject;
+import java.io.IOException;
+
+// Restores a snapshot written by exportPackDevCache into the PackDev cache. See CacheSnapshot.
+public abstract class ImportCacheTask extends DefaultTask {
+
+    private final PackDevCache cache;
+    private final String platform;
+
+    @Inject
+    public ImportCacheTask(PackDevCache cache, String platform) {
+        this.cache = cache;
+        this.platform = platform;
+        this.getSnapshotFile().convention(this.getProject().getLayout().getBuildDirectory().file("packdev/packdev-cache.zip"));
+        // The cache lives outside the project
+        this.getOutputs().upToDateWhen(t -> false);
+    }
+
+    @Internal
+    public abstract RegularFileProperty getSnapshotFile();
+
+    @Option(option = "file", description = "The snapshot archive to read.")
+    public void setSnapshotPath(String path) {
+        this.getSnapshotFile().set(this.getProject().file(path));
+    }
+
+    @TaskAction
+    public void importSnapshot() throws IOException {
+        CacheSnapshot.importFrom(this.cache, this.platform, this.getSnapshotFile().get().getAsFile().toPath());
+        this.cache.save();
+    }
+}
@@ -0,0 +1,75 @@
+package org.moddingx.packdev.cache;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.TaskAction;
+import org.moddingx.packdev.platform.BaseModFile;
+import org.moddingx.packdev.platform.ModFile;
+import org.moddingx.packdev.util.hash.ComputedHash;
+
+import javax.inject.Inject;
+import java.io.IOException;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+// Generates modlist.lock. Resolves all immutable metadata and the configured hashes of every file
+// and records them together with everything else already known about the file, such as cross-platform matches.
+public abstract class LockModListTask extends DefaultTask {
+
+    private final PackDevCache cache;
+    private final String platform;
+    private final String minecraft;
+    private final List<ModFile> files;
+
+    @Inject
+    public LockModListTask(PackDevCache cache, String platform, String minecraft, List<ModFile> files) {
+        this.cache = cache;
+        this.platform = platform;
+        this.minecraft = minecraft;
+        this.files = files;
+        this.getHashes().convention(List.of("size", "sha1"));
+        this.getLockFile().convention(this.getProject().getLayout().getProjectDirectory().file(ModListLock.FILE_NAME));
+        // The result depends on the platform apis
+        this.getOutputs().upToDateWhen(t -> false);
+    }
+
+    // Hashes to resolve for every file. Hashes the platform does not provide require downloading the file.
+    @Input
+    public abstract ListProperty<String> getHashes();
+
+    @OutputFile
+    public abstract RegularFileProperty getLockFile();
+
+    @TaskAction
+    public void lock() throws IOException {
+        Set<String> hashes = Set.copyOf(this.getHashes().get());
+        Map<String, Map<String, String>> metadata = new HashMap<>();
+        Map<String, Map<String, ComputedHash>> fileHashes = new HashMap<>();
+        for (ModFile file : this.files) {
+            if (!(file instanceof BaseModFile bmf)) {
+                System.err.println("Warning: Can't lock file " + file + ": It is not cached by PackDev.");
+                continue;
+            }
+            // These populate the metadata in the cache
+            file.projectSlug();
+            file.projectName();
+            file.fileName();
+            file.downloadURL();
+            file.projectURL();
+            file.projectOwner();
+            try {
+                file.hashes(hashes);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IOException("Can't lock file " + file + ": Not all hashes are supported.", e);
+            }
+            metadata.put(bmf.cacheKey(), this.cache.getAllMetadata(bmf.cacheKey()));
+            fileHashes.put(bmf.cacheKey(), this.cache.getAllHashes(bmf.cacheKey()));
+        }
+        ModListLock lock = new ModListLock(this.platform, Map.of(this.minecraft, this.cache.getJavaVersion(this.minecraft)), metadata, fileHashes);
+        lock.write(this.getLockFile().get().getAsFile().toPath());
+        this.cache.save();
+    }
+}
@@ -0,0 +1,95 @@
+package org.moddingx.packdev.cache;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonPrimitive;
+import org.moddingx.packdev.util.hash.ComputedHash;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+// Contents of modlist.lock: Immutable metadata and hashes of every file keyed by the same file keys as the PackDev cache.
+// Cross-platform matches are part of the metadata. Hashes use the same format as index.json in the cache.
+public record ModListLock(
+        String platform,
+        Map<String, Integer> javaVersions,
+        Map<String, Map<String, String>> metadata,
+        Map<String, Map<String, ComputedHash>> hashes
+) {
+    
+    public static final String FILE_NAME = "modlist.lock";
+    
+    private static final int API = 1;
+    
+    public static ModListLock load(Path path) throws IOException {
+        try {
+            JsonObject json = PackDevCache.GSON.fromJson(Files.readString(path, StandardCharsets.UTF_8), JsonObject.class);
+            int api = json.get("api").getAsInt();
+            if (api != API) {
+                throw new IOException("Unsupported " + FILE_NAME + " API: " + api + ". Regenerate it with the lockModList task.");
+            }
+            
+            Map<String, Integer> javaVersions = new HashMap<>();
+            if (json.has("java")) {
+                for (Map.Entry<String, JsonElement> entry : json.getAsJsonObject("java").entrySet()) {
+                    javaVersions.put(entry.getKey(), entry.getValue().getAsInt());
+                }
+            }
+            
+            Map<String, Map<String, String>> metadata = new HashMap<>();
+            Map<String, Map<String, ComputedHash>> hashes = new HashMap<>();
+            if (json.has("files")) {
+                for (Map.Entry<String, JsonElement> entry : json.getAsJsonObject("files").entrySet()) {
+                    JsonObject file = entry.getValue().getAsJsonObject();
+                    if (file.has("meta")) {
+                        Map<String, String> map = new HashMap<>();
+                        file.getAsJsonObject("meta").entrySet().forEach(e -> map.put(e.getKey(), e.getValue().getAsString()));
+                        metadata.put(entry.getKey(), Collections.unmodifiableMap(map));
+                    }
+                    if (file.has("hashes")) {
+                        Map<String, ComputedHash> map = new HashMap<>();
+                        file.getAsJsonObject("hashes").entrySet().forEach(e -> map.put(e.getKey(), ComputedHash.load(new BigInteger(e.getValue().getAsString(), 36))));
+                        hashes.put(entry.getKey(), Collections.unmodifiableMap(map));
+                    }
+                }
+            }
+            return new ModListLock(json.get("platform").getAsString(), Collections.unmodifiableMap(javaVersions), Collections.unmodifiableMap(metadata), Collections.unmodifiableMap(hashes));
+        } catch (JsonParseException | NullPointerException | IllegalStateException | NumberFormatException e) {
+            throw new IOException("Invalid " + FILE_NAME + ": " + e.getMessage(), e);
+        }
+    }
+    
+    public void write(Path path) throws IOException {
+        JsonObject json = new JsonObject();
+        json.addProperty("api", API);
+        json.addProperty("platform", this.platform);
+        
+        JsonObject java = new JsonObject();
+        new TreeMap<>(this.javaVersions).forEach(java::addProperty);
+        json.add("java", java);
+        
+        // Sorted, so the file produces small diffs in version control
+        JsonObject files = new JsonObject();
+        Set<String> keys = new TreeSet<>(this.metadata.keySet());
+        keys.addAll(this.hashes.keySet());
+        for (String key : keys) {
+            JsonObject file = new JsonObject();
+            JsonObject meta = new JsonObject();
+            new TreeMap<>(this.metadata.getOrDefault(key, Map.of())).forEach(meta::addProperty);
+            file.add("meta", meta);
+            JsonObject hashes = new JsonObject();
+            new TreeMap<>(this.hashes.getOrDefault(key, Map.of())).forEach((k, v) -> hashes.add(k, new JsonPrimitive(v.store().toString(36))));
+            file.add("hashes", hashes);
+            files.add(key, file);
+        }
+        json.add("files", files);
+        
+        Files.writeString(path, PackDevCache.GSON.newBuilder().setPrettyPrinting().create().toJson(json) + "\n", StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+}
@@ -4,18 +4,24 @@ import com.google.gson.*;
 import jakarta.annotation.Nullable;
 import org.gradle.api.Project;
 import org.moddingx.launcherlib.launcher.Launcher;
+import org.moddingx.packdev.metrics.PackDevMetrics;
 import org.moddingx.packdev.platform.ModdingPlatform;
 import org.moddingx.packdev.util.hash.ComputedHash;
 
 import java.io.IOException;
+import java.lang.ref.SoftReference;
 import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class PackDevCache {
     
@@ -29,15 +35,31 @@ public class PackDevCache {
     
     private static final int VERSION = 2;
     
+    // Parsed index.json files, shared by all builds in the same gradle daemon.
+    // A snapshot is only used if size and modification time of index.json still match, so changes by other processes are picked up.
+    private static final Map<Path, SoftReference<Snapshot>> snapshots = new ConcurrentHashMap<>();
+    
+    // Offline mode is enabled by gradle --offline or this project property
+    public static final String OFFLINE_PROPERTY = "packdev.offline";
+    
     private final Path basePath;
     private final Path path;
     private final Launcher launcher;
+    private final boolean offline;
     
     private boolean loaded;
     private boolean saved;
     
     private final Map<String, Integer> javaVersions;
     private final Map<String, Map<String, ComputedHash>> hashes;
+    private final Map<String, Map<String, String>> metadata;
+    // Cross-platform index: sha1 of a file to its matches on the platforms, independent of the file key
+    private final Map<String, Map<String, String>> matches;
+    // Stats of verified files in the cache, by file key
+    private final Map<String, FileStat> stats;
+    
+    // Read-only layer from modlist.lock that takes precedence over the cache
+    @Nullable private ModListLock lock;
     
     public PackDevCache(Project project, ModdingPlatform<?> platform) {
         this.basePath = project.getGradle().getGradleUserHomeDir().toPath()
@@ -46,36 +68,172 @@ public class PackDevCache {
                 .toAbsolutePath().normalize();
         this.path = this.basePath.resolve("index.json").toAbsolutePath().normalize();
         this.launcher = new Launcher(this.basePath.resolve("launcher"));
+        this.offline = isOffline(project);
         
         this.loaded = false;
         this.saved = false;
         
         this.javaVersions = new HashMap<>();
         this.hashes = new HashMap<>();
+        this.metadata = new HashMap<>();
+        this.matches = new HashMap<>();
+        this.stats = new HashMap<>();
+    }
+    
+    public static boolean isOffline(Project project) {
+        Object value = project.getProperties().get(OFFLINE_PROPERTY);
+        return project.getGradle().getStartParameter().isOffline() || (value != null && Boolean.parseBoolean(value.toString().strip()));
+    }
+    
+    // In offline mode, all platform data must come from the cache. Misses should fail instead of querying the platform api.
+    public boolean isOffline() {
+        return this.offline;
+    }
+    
+    public void useLock(ModListLock lock) {
+        this.lock = lock;
     }
     
     public Launcher launcher() {
         return this.launcher;
     }
     
+    // The launcher request runs without holding the lock, so other cache accessors don't wait for the network.
     public int getJavaVersion(String minecraft) {
-        return this.javaVersions.computeIfAbsent(minecraft, k -> this.launcher.version(minecraft).java());
+        synchronized (this) {
+            if (this.lock != null && this.lock.javaVersions().containsKey(minecraft)) {
+                return this.lock.javaVersions().get(minecraft);
+            }
+            this.load();
+            Integer java = this.javaVersions.get(minecraft);
+            if (java != null) return java;
+        }
+        if (this.offline) throw new IllegalStateException("PackDev is offline and the java version for minecraft " + minecraft + " is not cached.");
+        int java = this.launcher.version(minecraft).java();
+        synchronized (this) {
+            Integer existing = this.javaVersions.putIfAbsent(minecraft, java);
+            if (existing != null) return existing;
+            this.modify();
+            return java;
+        }
     }
     
     @Nullable
-    public ComputedHash getHash(String fileKey, String algorithm) {
+    public synchronized ComputedHash getHash(String fileKey, String algorithm) {
+        if (this.lock != null) {
+            ComputedHash hash = this.lock.hashes().getOrDefault(fileKey, Map.of()).get(algorithm.toLowerCase(Locale.ROOT));
+            if (hash != null) return hash;
+        }
         this.load();
         Map<String, ComputedHash> map = this.hashes.get(fileKey);
         if (map == null) return null;
         return map.getOrDefault(algorithm.toLowerCase(Locale.ROOT), null);
     }
     
-    public void updateHash(String fileKey, String algorithm, ComputedHash hash) {
+    public synchronized void updateHash(String fileKey, String algorithm, ComputedHash hash) {
         this.load();
         this.hashes.computeIfAbsent(fileKey, k -> new HashMap<>()).put(algorithm.toLowerCase(Locale.ROOT), hash);
         this.modify();
     }
     
+    // Platform metadata (names, urls, ...) of a file, so it is available in offline mode.
+    @Nullable
+    public synchronized String getMetadata(String fileKey, String key) {
+        if (this.lock != null) {
+            String value = this.lock.metadata().getOrDefault(fileKey, Map.of()).get(key);
+            if (value != null) return value;
+        }
+        this.load();
+        Map<String, String> map = this.metadata.get(fileKey);
+        if (map == null) return null;
+        return map.getOrDefault(key, null);
+    }
+    
+    // Metadata pinned by modlist.lock, ignoring the cache
+    @Nullable
+    public synchronized String getLockedMetadata(String fileKey, String key) {
+        if (this.lock == null) return null;
+        return this.lock.metadata().getOrDefault(fileKey, Map.of()).get(key);
+    }
+    
+    public synchronized void updateMetadata(String fileKey, String key, String value) {
+        this.load();
+        String old = this.metadata.computeIfAbsent(fileKey, k -> new HashMap<>()).put(key, value);
+        if (!value.equals(old)) this.modify();
+    }
+    
+    @Nullable
+    public synchronized String getIndexedMatch(ComputedHash sha1, String key) {
+        this.load();
+        Map<String, String> map = this.matches.get(sha1.hexDigest());
+        if (map == null) return null;
+        return map.getOrDefault(key, null);
+    }
+    
+    public synchronized void updateIndexedMatch(ComputedHash sha1, String key, String value) {
+        this.load();
+        String old = this.matches.computeIfAbsent(sha1.hexDigest(), k -> new HashMap<>()).put(key, value);
+        if (!value.equals(old)) this.modify();
+    }
+    
+    // Stats of a cached file when it was last verified. These are local to the machine and never part of the lock.
+    @Nullable
+    public synchronized FileStat getFileStat(String fileKey) {
+        this.load();
+        return this.stats.get(fileKey);
+    }
+    
+    public synchronized void updateFileStat(String fileKey, FileStat stat) {
+        this.load();
+        FileStat old = this.stats.put(fileKey, stat);
+        if (!stat.equals(old)) this.modify();
+    }
+    
+    public synchronized void removeFileStat(String fileKey) {
+        this.load();
+        if (this.stats.remove(fileKey) != null) this.modify();
+    }
+    
+    // All known hashes of a file, including those from the lock
+    public synchronized Map<String, ComputedHash> getAllHashes(String fileKey) {
+        this.load();
+        Map<String, ComputedHash> map = new HashMap<>(this.hashes.getOrDefault(fileKey, Map.of()));
+        if (this.lock != null) map.putAll(this.lock.hashes().getOrDefault(fileKey, Map.of()));
+        return Collections.unmodifiableMap(map);
+    }
+    
+    // All known metadata of a file, including those from the lock
+    public synchronized Map<String, String> getAllMetadata(String fileKey) {
+        this.load();
+        Map<String, String> map = new HashMap<>(this.metadata.getOrDefault(fileKey, Map.of()));
+        if (this.lock != null) map.putAll(this.lock.metadata().getOrDefault(fileKey, Map.of()));
+        return Collections.unmodifiableMap(map);
+    }
+    
+    // Adds everything from the index.json of another cache, that is not yet known. Stats are local to the machine and skipped.
+    public synchronized void merge(Path indexFile) throws IOException {
+        this.load();
+        Map<String, Integer> javaVersions = new HashMap<>();
+        Map<String, Map<String, ComputedHash>> hashes = new HashMap<>();
+        Map<String, Map<String, String>> metadata = new HashMap<>();
+        Map<String, Map<String, String>> matches = new HashMap<>();
+        try {
+            read(GSON.fromJson(Files.readString(indexFile, StandardCharsets.UTF_8), JsonObject.class), javaVersions, hashes, metadata, matches, new HashMap<>());
+        } catch (JsonParseException | IllegalStateException | NumberFormatException e) {
+            throw new IOException("Invalid PackDev cache index: " + indexFile, e);
+        }
+        javaVersions.forEach(this.javaVersions::putIfAbsent);
+        mergeInto(hashes, this.hashes);
+        mergeInto(metadata, this.metadata);
+        mergeInto(matches, this.matches);
+        this.modify();
+    }
+    
+    // Root directory of the cache for this platform. Everything in here can be shared between machines, except for the file stats.
+    public Path getBasePath() {
+        return this.basePath;
+    }
+    
     public Path getCachePath(String... groups) throws IOException {
         Path groupPath = this.basePath.getFileSystem().getPath("", groups);
         if (groupPath.isAbsolute()) {
@@ -90,26 +248,29 @@ public class PackDevCache {
     
     private synchronized void load() {
         if (!this.loaded) {
-            try {
-                if (Files.isRegularFile(this.path)) {
+            try (PackDevMetrics.Timer timer = PackDevMetrics.time("cache.load")) {
+                BasicFileAttributes attributes = Files.isRegularFile(this.path) ? Files.readAttributes(this.path, BasicFileAttributes.class) : null;
+                SoftReference<Snapshot> ref = snapshots.get(this.path);
+                Snapshot snapshot = ref == null ? null : ref.get();
+                if (attributes != null && snapshot != null && snapshot.matches(attributes)) {
+                    PackDevMetrics.count("cache.snapshot.hit");
+                    this.javaVersions.clear();
+                    this.javaVersions.putAll(snapshot.javaVersions());
+                    copyInto(snapshot.hashes(), this.hashes);
+                    copyInto(snapshot.metadata(), this.metadata);
+                    copyInto(snapshot.matches(), this.matches);
+                    this.stats.clear();
+                    this.stats.putAll(snapshot.stats());
+                } else if (attributes != null) {
+                    PackDevMetrics.count("cache.snapshot.miss");
                     String data = Files.readString(this.path, StandardCharsets.UTF_8);
-                    JsonObject json = GSON.fromJson(data, JsonObject.class);
-                    
                     this.javaVersions.clear();
-                    if (json.has("java")) {
-                        for (Map.Entry<String, JsonElement> entry : json.getAsJsonObject("java").entrySet()) {
-                            this.javaVersions.put(entry.getKey(), entry.getValue().getAsInt());
-                        }
-                    }
-                    
                     this.hashes.clear();
-                    if (json.has("hashes")) {
-                        for (Map.Entry<String, JsonElement> entry : json.getAsJsonObject("hashes").entrySet()) {
-                            Map<String, ComputedHash> map = new HashMap<>();
-                            entry.getValue().getAsJsonObject().entrySet().forEach(e -> map.put(e.getKey(), ComputedHash.load(new BigInteger(e.getValue().getAsString(), 36))));
-                            this.hashes.put(entry.getKey(), map);
-                        }
-                    }
+                    this.metadata.clear();
+                    this.matches.clear();
+                    this.stats.clear();
+                    read(GSON.fromJson(data, JsonObject.class), this.javaVersions, this.hashes, this.metadata, this.matches, this.stats);
+                    this.storeSnapshot(attributes);
                 }
             } catch (IOException | JsonParseException e) {
                 e.printStackTrace();
@@ -120,13 +281,55 @@ public class PackDevCache {
         }
     }
     
+    private static void read(JsonObject json, Map<String, Integer> javaVersions, Map<String, Map<String, ComputedHash>> hashes, Map<String, Map<String, String>> metadata, Map<String, Map<String, String>> matches, Map<String, FileStat> stats) {
+        if (json.has("java")) {
+            for (Map.Entry<String, JsonElement> entry : json.getAsJsonObject("java").entrySet()) {
+                javaVersions.put(entry.getKey(), entry.getValue().getAsInt());
+            }
+        }
+        
+        if (json.has("hashes")) {
+            for (Map.Entry<String, JsonElement> entry : json.getAsJsonObject("hashes").entrySet()) {
+                Map<String, ComputedHash> map = new HashMap<>();
+                entry.getValue().getAsJsonObject().entrySet().forEach(e -> map.put(e.getKey(), ComputedHash.load(new BigInteger(e.getValue().getAsString(), 36))));
+                hashes.put(entry.getKey(), map);
+            }
+        }
+        
+        if (json.has("meta")) {
+            for (Map.Entry<String, JsonElement> entry : json.getAsJsonObject("meta").entrySet()) {
+                Map<String, String> map = new HashMap<>();
+                entry.getValue().getAsJsonObject().entrySet().forEach(e -> map.put(e.getKey(), e.getValue().getAsString()));
+                metadata.put(entry.getKey(), map);
+            }
+        }
+        
+        if (json.has("matches")) {
+            for (Map.Entry<String, JsonElement> entry : json.getAsJsonObject("matches").entrySet()) {
+                Map<String, String> map = new HashMap<>();
+                entry.getValue().getAsJsonObject().entrySet().forEach(e -> map.put(e.getKey(), e.getValue().getAsString()));
+                matches.put(entry.getKey(), map);
+            }
+        }
+        
+        if (json.has("stats")) {
+            for (Map.Entry<String, JsonElement> entry : json.getAsJsonObject("stats").entrySet()) {
+                JsonObject stat = entry.getValue().getAsJsonObject();
+                stats.put(entry.getKey(), new FileStat(
+                        stat.get("size").getAsLong(), stat.get("modified").getAsLong(),
+                        stat.has("inode") ? stat.get("inode").getAsString() : null
+                ));
+            }
+        }
+    }
+    
     private synchronized void modify() {
         this.saved = false;
     }
     
     public synchronized void save() {
         if (this.loaded && !this.saved) {
-            try {
+            try (PackDevMetrics.Timer timer = PackDevMetrics.time("cache.save")) {
                 if (!Files.isDirectory(this.basePath)) {
                     Files.createDirectories(this.basePath);
                 }
@@ -146,12 +349,74 @@ public class PackDevCache {
                 }
                 json.add("hashes", hashes);
                 
+                JsonObject meta = new JsonObject();
+                for (Map.Entry<String, Map<String, String>> entry : this.metadata.entrySet()) {
+                    JsonObject map = new JsonObject();
+                    entry.getValue().forEach(map::addProperty);
+                    meta.add(entry.getKey(), map);
+                }
+                json.add("meta", meta);
+                
+                JsonObject matches = new JsonObject();
+                for (Map.Entry<String, Map<String, String>> entry : this.matches.entrySet()) {
+                    JsonObject map = new JsonObject();
+                    entry.getValue().forEach(map::addProperty);
+                    matches.add(entry.getKey(), map);
+                }
+                json.add("matches", matches);
+                
+                JsonObject stats = new JsonObject();
+                for (Map.Entry<String, FileStat> entry : this.stats.entrySet()) {
+                    JsonObject stat = new JsonObject();
+                    stat.addProperty("size", entry.getValue().size());
+                    stat.addProperty("modified", entry.getValue().modified());
+                    if (entry.getValue().inode() != null) stat.addProperty("inode", entry.getValue().inode());
+                    stats.add(entry.getKey(), stat);
+                }
+                json.add("stats", stats);
+                
                 String data = GSON.toJson(json) + "\n";
                 Files.writeString(this.path, data, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
                 this.saved = true;
+                this.storeSnapshot(Files.readAttributes(this.path, BasicFileAttributes.class));
             } catch (IOException e) {
                 e.printStackTrace();
             }
         }
     }
+    
+    private void storeSnapshot(BasicFileAttributes attributes) {
+        Snapshot snapshot = new Snapshot(
+                attributes.lastModifiedTime(), attributes.size(), Map.copyOf(this.javaVersions),
+                copyInto(this.hashes, new HashMap<>()), copyInto(this.metadata, new HashMap<>()), copyInto(this.matches, new HashMap<>()),
+                Map.copyOf(this.stats)
+        );
+        snapshots.put(this.path, new SoftReference<>(snapshot));
+    }
+    
+    private static <T> Map<String, Map<String, T>> copyInto(Map<String, Map<String, T>> source, Map<String, Map<String, T>> target) {
+        target.clear();
+        for (Map.Entry<String, Map<String, T>> entry : source.entrySet()) {
+            target.put(entry.getKey(), new HashMap<>(entry.getValue()));
+        }
+        return target;
+    }
+    
+    private static <T> void mergeInto(Map<String, Map<String, T>> source, Map<String, Map<String, T>> target) {
+        for (Map.Entry<String, Map<String, T>> entry : source.entrySet()) {
+            Map<String, T> map = target.computeIfAbsent(entry.getKey(), k -> new HashMap<>());
+            entry.getValue().forEach(map::putIfAbsent);
+        }
+    }
+    
+    private record Snapshot(
+            FileTime modified, long size, Map<String, Integer> javaVersions,
+            Map<String, Map<String, ComputedHash>> hashes, Map<String, Map<String, String>> metadata, Map<String, Map<String, String>> matches,
+            Map<String, FileStat> stats
+    ) {
+        
+        public boolean matches(BasicFileAttributes attributes) {
+            return this.size == attributes.size() && this.modified.equals(attributes.lastModifiedTime());
+        }
+    }
 }
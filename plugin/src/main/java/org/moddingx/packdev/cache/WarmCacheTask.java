@@ -0,0 +1,68 @@
+package org.moddingx.packdev.cache;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.tasks.TaskAction;
+import org.moddingx.packdev.metrics.PackDevMetrics;
+import org.moddingx.packdev.platform.BaseModFile;
+import org.moddingx.packdev.platform.ModFile;
+import org.moddingx.packdev.target.BaseTargetTask;
+import org.moddingx.packdev.target.PackResolver;
+import org.moddingx.packdev.util.PackDevExecutor;
+
+import javax.inject.Inject;
+import java.io.IOException;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Fills the PackDev cache with everything the targets of the pack need, so later builds don't hit the network.
+// Downloads and hashes all files in parallel, then lets every target fetch its own data, such as
+// lookups on other platforms or MultiMC components.
+public abstract class WarmCacheTask extends DefaultTask {
+
+    private final PackDevCache cache;
+    private final String minecraft;
+    private final List<ModFile> files;
+
+    @Inject
+    public WarmCacheTask(PackDevCache cache, String minecraft, List<ModFile> files) {
+        this.cache = cache;
+        this.minecraft = minecraft;
+        this.files = files;
+        // The cache lives outside the project
+        this.getOutputs().upToDateWhen(t -> false);
+    }
+
+    @TaskAction
+    public void warm() throws IOException {
+        if (this.cache.isOffline()) {
+            throw new GradleException("Can't warm the PackDev cache in offline mode.");
+        }
+        try (PackDevMetrics.Timer timer = PackDevMetrics.time("cache.warm")) {
+            this.cache.getJavaVersion(this.minecraft);
+            List<BaseModFile> cached = this.files.stream().flatMap(f -> f instanceof BaseModFile bmf ? Stream.of(bmf) : Stream.empty()).toList();
+            PackDevExecutor.forEach(cached, file -> {
+                // These populate the metadata in the cache
+                file.projectSlug();
+                file.projectName();
+                file.fileName();
+                file.downloadURL();
+                file.projectURL();
+                file.projectOwner();
+                file.dependencies();
+                file.cachedFile();
+                try {
+                    file.hashes(PackResolver.HASHES);
+                } catch (NoSuchAlgorithmException e) {
+                    throw new IOException("Can't hash " + file.cacheKey(), e);
+                }
+            });
+            for (BaseTargetTask<?> target : this.getProject().getTasks().withType(BaseTargetTask.class)) {
+                target.warm();
+            }
+        }
+        this.cache.save();
+        this.getLogger().lifecycle("Warmed the PackDev cache for " + this.files.size() + " files.");
+    }
+}
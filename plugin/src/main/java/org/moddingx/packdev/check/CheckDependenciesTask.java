@@ -0,0 +1,135 @@
+package org.moddingx.packdev.check;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.api.tasks.options.Option;
+import org.moddingx.packdev.metrics.PackDevMetrics;
+import org.moddingx.packdev.platform.ModFile;
+import org.moddingx.packdev.util.Util;
+
+import javax.inject.Inject;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Locale;
+
+// Checks that all required dependencies of the mods in the pack are present.
+// Reports missing, optional and incompatible dependencies and can add the missing ones to modlist.json.
+public abstract class CheckDependenciesTask extends DefaultTask {
+
+    private final List<ModFile> files;
+    private final String loader;
+    private final String minecraft;
+    private final boolean offline;
+
+    @Inject
+    public CheckDependenciesTask(List<ModFile> files, String loader, String minecraft, boolean offline) {
+        this.files = files;
+        this.loader = loader;
+        this.minecraft = minecraft;
+        this.offline = offline;
+        this.getReportFile().convention(this.getProject().getLayout().getBuildDirectory().file("packdev/checkDependencies.txt"));
+        this.getModListFile().convention(this.getProject().getLayout().getProjectDirectory().file("modlist.json"));
+        this.getFailOnMissing().convention(false);
+        this.getAddMissing().convention(false);
+        // Depends on the state of the platforms
+        this.getOutputs().upToDateWhen(t -> false);
+    }
+
+    @Internal
+    public abstract RegularFileProperty getReportFile();
+
+    @Internal
+    public abstract RegularFileProperty getModListFile();
+
+    // Fail, if required dependencies are missing
+    @Internal
+    public abstract Property<Boolean> getFailOnMissing();
+
+    @Internal
+    @Option(option = "add-missing", description = "Add missing required dependencies to modlist.json.")
+    public abstract Property<Boolean> getAddMissing();
+
+    @TaskAction
+    public void check() throws IOException {
+        DependencyGraph graph;
+        try (PackDevMetrics.Timer timer = PackDevMetrics.time("check.dependencies")) {
+            graph = DependencyGraph.resolve(this.files, this.loader, this.minecraft, this.offline);
+        }
+        List<DependencyGraph.Missing> missing = graph.missing();
+        List<DependencyGraph.OptionalDependency> optional = graph.optional();
+        List<DependencyGraph.Incompatibility> incompatible = graph.incompatible();
+
+        Path report = this.getReportFile().get().getAsFile().toPath();
+        Files.createDirectories(report.getParent());
+        try (Writer writer = Files.newBufferedWriter(report, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writer.write("Missing required dependencies (" + missing.size() + "):\n");
+            for (DependencyGraph.Missing dep : missing) {
+                String version = dep.file().map(file -> dep.slug().orElse(dep.project()) + " " + file).orElse(dep.project() + ", no version for " + this.loader + " " + this.minecraft);
+                writer.write("  " + dep.platform().name().toLowerCase(Locale.ROOT) + ": " + version + " (" + dep.side().id + "), required by " + String.join(", ", dep.requiredBy()) + "\n");
+            }
+            writer.write("\nOptional dependencies not in the pack (" + optional.size() + "):\n");
+            for (DependencyGraph.OptionalDependency dep : optional) {
+                writer.write("  " + dep.platform().name().toLowerCase(Locale.ROOT) + ": " + dep.project() + ", used by " + String.join(", ", dep.requiredBy()) + "\n");
+            }
+            writer.write("\nIncompatible mods (" + incompatible.size() + "):\n");
+            for (DependencyGraph.Incompatibility dep : incompatible) {
+                writer.write("  " + dep.mod() + " is incompatible with " + dep.incompatibleWith() + "\n");
+            }
+        }
+
+        if (this.getAddMissing().get() && !missing.isEmpty()) {
+            this.addMissing(missing);
+        }
+
+        String summary = "checkDependencies: " + missing.size() + " missing, " + optional.size() + " optional, " + incompatible.size() + " incompatible. Report: " + report.toAbsolutePath().normalize();
+        if ((!missing.isEmpty() || !incompatible.isEmpty()) && this.getFailOnMissing().get() && !this.getAddMissing().get()) {
+            throw new GradleException(summary);
+        } else if (!missing.isEmpty() || !incompatible.isEmpty()) {
+            System.err.println("Warning: " + summary);
+        } else {
+            this.getLogger().lifecycle(summary);
+        }
+    }
+
+    // Missing dependencies are added to the dependencies of modlist.json. Projects without a version are skipped.
+    private void addMissing(List<DependencyGraph.Missing> missing) throws IOException {
+        Path modListFile = this.getModListFile().get().getAsFile().toPath();
+        JsonObject modList;
+        try (Reader reader = Files.newBufferedReader(modListFile, StandardCharsets.UTF_8)) {
+            modList = Util.GSON.fromJson(reader, JsonObject.class);
+        }
+        if (!modList.has("dependencies")) modList.add("dependencies", new JsonArray());
+        JsonArray dependencies = modList.get("dependencies").getAsJsonArray();
+        int added = 0;
+        for (DependencyGraph.Missing dep : missing) {
+            if (dep.file().isEmpty()) continue;
+            JsonObject entry = new JsonObject();
+            if (dep.platform() == DependencyGraph.Platform.CURSE) {
+                entry.addProperty("project", Integer.parseInt(dep.project()));
+                entry.addProperty("file", Integer.parseInt(dep.file().get()));
+            } else {
+                entry.addProperty("project", dep.project());
+                entry.addProperty("file", dep.file().get());
+            }
+            entry.addProperty("side", dep.side().id);
+            dependencies.add(entry);
+            added += 1;
+        }
+        try (Writer writer = Files.newBufferedWriter(modListFile, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writer.write(Util.GSON.toJson(modList) + "\n");
+        }
+        this.getLogger().lifecycle("Added " + added + " dependencies to " + modListFile.getFileName() + ".");
+    }
+}
@@ -0,0 +1,193 @@
+package org.moddingx.packdev.check;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.api.tasks.options.Option;
+import org.moddingx.packdev.metrics.PackDevMetrics;
+import org.moddingx.packdev.platform.ModFile;
+import org.moddingx.packdev.platform.curse.CurseFile;
+import org.moddingx.packdev.platform.modrinth.ModrinthFile;
+import org.moddingx.packdev.platform.modrinth.api.ModrinthAPI;
+import org.moddingx.packdev.platform.modrinth.api.VersionInfo;
+import org.moddingx.packdev.util.PackDevExecutor;
+import org.moddingx.packdev.util.Util;
+import org.moddingx.packdev.util.curse.CurseUtil;
+import org.moddingx.packdev.util.hash.ComputedHash;
+import org.moddingx.packdev.util.hash.HashAlgorithm;
+
+import javax.inject.Inject;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.stream.Stream;
+
+// Looks up the latest version of every mod for the loader and minecraft version of the pack.
+// Modrinth files are checked with a single version_files/update request keyed by sha1. CurseForge has no batch
+// endpoint for the latest files, so the file lists of all curse projects are fetched concurrently instead.
+public abstract class CheckModUpdatesTask extends DefaultTask {
+
+    private final List<ModFile> files;
+    private final String loader;
+    private final String minecraft;
+    private final boolean offline;
+
+    @Inject
+    public CheckModUpdatesTask(List<ModFile> files, String loader, String minecraft, boolean offline) {
+        this.files = files;
+        this.loader = loader;
+        this.minecraft = minecraft;
+        this.offline = offline;
+        this.getReportFile().convention(this.getProject().getLayout().getBuildDirectory().file("packdev/modUpdates.json"));
+        this.getModListFile().convention(this.getProject().getLayout().getProjectDirectory().file("modlist.json"));
+        this.getUpdatedModListFile().convention(this.getProject().getLayout().getBuildDirectory().file("packdev/modlist.updated.json"));
+        this.getWriteModList().convention(false);
+        // Depends on the state of the platforms
+        this.getOutputs().upToDateWhen(t -> false);
+    }
+
+    @Internal
+    public abstract RegularFileProperty getReportFile();
+
+    @Internal
+    public abstract RegularFileProperty getModListFile();
+
+    @Internal
+    public abstract RegularFileProperty getUpdatedModListFile();
+
+    // Write a copy of modlist.json with all mods updated to their latest version
+    @Internal
+    @Option(option = "write-modlist", description = "Write a copy of modlist.json with all mods updated.")
+    public abstract Property<Boolean> getWriteModList();
+
+    @TaskAction
+    public void checkUpdates() throws IOException {
+        if (this.offline) {
+            throw new GradleException("Can't check for mod updates in offline mode.");
+        }
+        List<Update> updates = new ArrayList<>();
+        try (PackDevMetrics.Timer timer = PackDevMetrics.time("updates.check")) {
+            updates.addAll(this.checkModrinth(this.files.stream().flatMap(f -> f instanceof ModrinthFile mf ? Stream.of(mf) : Stream.empty()).toList()));
+            updates.addAll(this.checkCurse(this.files.stream().flatMap(f -> f instanceof CurseFile cf ? Stream.of(cf) : Stream.empty()).toList()));
+        }
+        updates.sort(Comparator.comparing(Update::slug));
+
+        JsonArray array = new JsonArray();
+        for (Update update : updates) {
+            JsonObject json = new JsonObject();
+            json.addProperty("slug", update.slug());
+            json.addProperty("name", update.name());
+            json.addProperty("project", update.project());
+            json.addProperty("file", update.file());
+            json.addProperty("file_name", update.fileName());
+            update.latest().ifPresent(latest -> {
+                JsonObject latestJson = new JsonObject();
+                latestJson.addProperty("file", latest.file());
+                latestJson.addProperty("file_name", latest.fileName());
+                json.add("latest", latestJson);
+            });
+            json.addProperty("update", update.hasUpdate());
+            array.add(json);
+        }
+        JsonObject report = new JsonObject();
+        report.addProperty("loader", this.loader);
+        report.addProperty("minecraft", this.minecraft);
+        report.add("mods", array);
+        writeJson(this.getReportFile().get().getAsFile().toPath(), report);
+
+        if (this.getWriteModList().get()) {
+            this.writeUpdatedModList(updates);
+        }
+
+        long available = updates.stream().filter(Update::hasUpdate).count();
+        long unavailable = updates.stream().filter(u -> u.latest().isEmpty()).count();
+        this.getLogger().lifecycle("checkModUpdates: " + available + " of " + updates.size() + " mods can be updated. Report: " + this.getReportFile().get().getAsFile().toPath().toAbsolutePath().normalize());
+        if (unavailable > 0) {
+            System.err.println("Warning: " + unavailable + " mods have no version for " + this.loader + " " + this.minecraft + ".");
+        }
+    }
+
+    private List<Update> checkModrinth(List<ModrinthFile> files) throws IOException {
+        if (files.isEmpty()) return List.of();
+        Map<ModrinthFile, ComputedHash> hashes = new LinkedHashMap<>();
+        for (ModrinthFile file : files) {
+            try {
+                hashes.put(file, file.hash("sha1"));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IOException("Can't check updates for " + file + ": sha1 not supported", e);
+            }
+        }
+        Map<ComputedHash, VersionInfo> latest = ModrinthAPI.latestVersions(HashAlgorithm.SHA1, Set.copyOf(hashes.values()), this.loader, this.minecraft);
+        List<Update> updates = new ArrayList<>();
+        for (Map.Entry<ModrinthFile, ComputedHash> entry : hashes.entrySet()) {
+            ModrinthFile file = entry.getKey();
+            Optional<Latest> version = Optional.ofNullable(latest.get(entry.getValue())).map(info -> new Latest(info.id(), info.fileName()));
+            updates.add(new Update(file.projectSlug(), file.projectName(), file.projectId, file.versionId, file.fileName(), version));
+        }
+        return updates;
+    }
+
+    private List<Update> checkCurse(List<CurseFile> files) throws IOException {
+        if (files.isEmpty()) return List.of();
+        return PackDevExecutor.map(files, file -> {
+            Optional<Latest> version = CurseUtil.getLatestFile(file.projectId, this.loader, this.minecraft)
+                    .map(info -> new Latest(Integer.toString(info.fileId()), info.name()));
+            return new Update(file.projectSlug(), file.projectName(), Integer.toString(file.projectId), Integer.toString(file.fileId), file.fileName(), version);
+        });
+    }
+
+    // Only replaces the file ids in a copy of modlist.json. Everything else is kept as it is.
+    private void writeUpdatedModList(List<Update> updates) throws IOException {
+        Map<String, String> latestFiles = new HashMap<>();
+        for (Update update : updates) {
+            if (update.hasUpdate()) latestFiles.put(update.project() + "/" + update.file(), update.latest().orElseThrow().file());
+        }
+        JsonObject modList;
+        try (Reader reader = Files.newBufferedReader(this.getModListFile().get().getAsFile().toPath(), StandardCharsets.UTF_8)) {
+            modList = Util.GSON.fromJson(reader, JsonObject.class);
+        }
+        for (String key : List.of("installed", "dependencies")) {
+            if (!modList.has(key)) continue;
+            for (JsonElement elem : modList.get(key).getAsJsonArray()) {
+                JsonObject entry = elem.getAsJsonObject();
+                String latest = latestFiles.get(entry.get("project").getAsString() + "/" + entry.get("file").getAsString());
+                if (latest == null) continue;
+                if (entry.get("file").getAsJsonPrimitive().isNumber()) {
+                    entry.addProperty("file", Integer.parseInt(latest));
+                } else {
+                    entry.addProperty("file", latest);
+                }
+            }
+        }
+        writeJson(this.getUpdatedModListFile().get().getAsFile().toPath(), modList);
+        this.getLogger().lifecycle("Updated mod list: " + this.getUpdatedModListFile().get().getAsFile().toPath().toAbsolutePath().normalize());
+    }
+
+    private static void writeJson(Path path, JsonObject json) throws IOException {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writer.write(Util.GSON.toJson(json) + "\n");
+        }
+    }
+
+    private record Update(String slug, String name, String project, String file, String fileName, Optional<Latest> latest) {
+
+        public boolean hasUpdate() {
+            return this.latest.isPresent() && !this.latest.get().file().equals(this.file);
+        }
+    }
+
+    private record Latest(String file, String fileName) {}
+}
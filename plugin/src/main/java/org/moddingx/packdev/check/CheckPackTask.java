@@ -0,0 +1,100 @@
+package org.moddingx.packdev.check;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.TaskAction;
+import org.moddingx.packdev.metrics.PackDevMetrics;
+import org.moddingx.packdev.platform.BaseModFile;
+import org.moddingx.packdev.platform.ModFile;
+import org.moddingx.packdev.util.PackDevExecutor;
+
+import javax.inject.Inject;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+// Finds classes and resources that are provided by more than one mod or nested library, and nested libraries
+// bundled in different versions. Only reads the central directories of the cached jars, so it finishes in seconds.
+public abstract class CheckPackTask extends DefaultTask {
+
+    private final List<ModFile> files;
+
+    @Inject
+    public CheckPackTask(List<ModFile> files) {
+        this.files = files;
+        this.getReportFile().convention(this.getProject().getLayout().getBuildDirectory().file("packdev/checkPack.txt"));
+        this.getFailOnConflict().convention(false);
+        // Depends on the cached jars, which are not tracked by gradle
+        this.getOutputs().upToDateWhen(t -> false);
+    }
+
+    @Internal
+    public abstract RegularFileProperty getReportFile();
+
+    // Fail, if classes or resources with different contents are found in multiple jars
+    @Internal
+    public abstract Property<Boolean> getFailOnConflict();
+
+    @TaskAction
+    public void check() throws IOException {
+        List<PackIndex.ScannedUnit> scanned;
+        try (PackDevMetrics.Timer timer = PackDevMetrics.time("check.scan")) {
+            List<BaseModFile> cached = this.files.stream().flatMap(file -> file instanceof BaseModFile bmf ? Stream.of(bmf) : Stream.empty()).toList();
+            // Downloads missing jars on the I/O executor, reading the central directories is CPU bound
+            List<Path> paths = PackDevExecutor.map(cached, BaseModFile::cachedFile);
+            List<List<PackIndex.ScannedUnit>> units = PackDevExecutor.mapCpu(IntStream.range(0, cached.size()).boxed().toList(), idx -> {
+                ModFile file = cached.get(idx);
+                try {
+                    return PackIndex.scan(file.fileName(), file.fileSide(), ZipDirectory.map(paths.get(idx)));
+                } catch (IOException e) {
+                    throw new IOException("Failed to read " + file, e);
+                }
+            });
+            scanned = units.stream().flatMap(List::stream).toList();
+        }
+
+        PackIndex index = PackIndex.build(scanned);
+        List<PackIndex.Overlap> overlaps = index.overlaps();
+        Map<String, SortedMap<String, SortedSet<String>>> libraries = index.libraryVersions();
+        int conflicts = (int) overlaps.stream().filter(overlap -> overlap.differing() > 0).count();
+
+        Path report = this.getReportFile().get().getAsFile().toPath();
+        Files.createDirectories(report.getParent());
+        try (Writer writer = Files.newBufferedWriter(report, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writer.write("Scanned " + index.unitCount() + " jars with " + index.entryCount() + " classes and resources.\n\n");
+            writer.write("Overlaps (" + overlaps.size() + ", " + conflicts + " with different contents):\n");
+            for (PackIndex.Overlap overlap : overlaps) {
+                writer.write("\n  " + overlap.count() + " entries, " + overlap.differing() + " different:\n");
+                for (PackIndex.Unit unit : overlap.units()) {
+                    writer.write("    - " + unit + "\n");
+                }
+                writer.write("    e.g. " + String.join(", ", overlap.examples()) + "\n");
+            }
+            writer.write("\nNested libraries in multiple versions (" + libraries.size() + "):\n");
+            for (Map.Entry<String, SortedMap<String, SortedSet<String>>> library : libraries.entrySet()) {
+                writer.write("\n  " + library.getKey() + "\n");
+                for (Map.Entry<String, SortedSet<String>> version : library.getValue().entrySet()) {
+                    writer.write("    " + version.getKey() + ": " + String.join(", ", version.getValue()) + "\n");
+                }
+            }
+        }
+
+        String summary = "checkPack: " + overlaps.size() + " overlaps (" + conflicts + " with different contents), " + libraries.size() + " nested libraries in multiple versions. Report: " + report.toAbsolutePath().normalize();
+        if (conflicts > 0 && this.getFailOnConflict().get()) {
+            throw new GradleException(summary);
+        } else if (!overlaps.isEmpty() || !libraries.isEmpty()) {
+            System.err.println("Warning: " + summary);
+        } else {
+            this.getLogger().lifecycle(summary);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package org.moddingx.packdev.check;
+
+import org.moddingx.cursewrapper.api.response.FileInfo;
+import org.moddingx.launcherlib.util.Side;
+import org.moddingx.packdev.platform.ModDependency;
+import org.moddingx.packdev.platform.ModFile;
+import org.moddingx.packdev.platform.curse.CurseFile;
+import org.moddingx.packdev.platform.modrinth.ModrinthFile;
+import org.moddingx.packdev.platform.modrinth.api.ModrinthAPI;
+import org.moddingx.packdev.platform.modrinth.api.VersionInfo;
+import org.moddingx.packdev.util.PackDevExecutor;
+import org.moddingx.packdev.util.curse.CurseUtil;
+
+import java.io.IOException;
+import java.util.*;
+
+// Dependency closure of a modpack. Walks the dependency metadata of the platforms breadth first.
+// Each level is fetched concurrently. Dependencies of the files in the pack are cached in the PackDev cache,
+// missing projects are resolved to their latest version for the loader and minecraft version of the pack.
+public class DependencyGraph {
+
+    private final String loader;
+    private final String minecraft;
+    private final boolean offline;
+
+    private final Map<String, Node> known = new HashMap<>();
+    private final Set<String> inPack = new HashSet<>();
+    private final Map<String, MissingBuilder> missing = new LinkedHashMap<>();
+    private final Map<String, OptionalDependency> optional = new LinkedHashMap<>();
+    // Incompatibilities are declared by node key. They are checked once all nodes are known.
+    private final Map<String, Set<String>> declaredIncompatible = new LinkedHashMap<>();
+    private final List<Incompatibility> incompatible = new ArrayList<>();
+
+    private DependencyGraph(String loader, String minecraft, boolean offline) {
+        this.loader = loader;
+        this.minecraft = minecraft;
+        this.offline = offline;
+    }
+
+    // Without network access, missing dependencies are reported without a version to add.
+    public static DependencyGraph resolve(List<ModFile> files, String loader, String minecraft, boolean offline) throws IOException {
+        DependencyGraph graph = new DependencyGraph(loader, minecraft, offline);
+        graph.walk(files.stream().filter(file -> file instanceof CurseFile || file instanceof ModrinthFile).toList());
+        return graph;
+    }
+
+    public List<Missing> missing() {
+        return this.missing.values().stream().map(MissingBuilder::build).toList();
+    }
+
+    public List<OptionalDependency> optional() {
+        return List.copyOf(this.optional.values());
+    }
+
+    public List<Incompatibility> incompatible() {
+        return List.copyOf(this.incompatible);
+    }
+
+    private void walk(List<ModFile> files) throws IOException {
+        List<Node> level = PackDevExecutor.map(files, DependencyGraph::packNode);
+        for (Node node : level) {
+            this.known.put(node.key(), node);
+            this.inPack.add(node.key());
+        }
+        while (!level.isEmpty()) {
+            Map<String, Dependency> toFetch = new LinkedHashMap<>();
+            for (Node node : level) {
+                for (ModDependency dep : node.dependencies()) {
+                    String key = node.platform() + ":" + dep.project();
+                    switch (dep.type()) {
+                        case REQUIRED -> {
+                            MissingBuilder builder = this.missing.get(key);
+                            if (builder != null) {
+                                builder.add(node);
+                            } else if (!this.known.containsKey(key) && !toFetch.containsKey(key)) {
+                                toFetch.put(key, new Dependency(node.platform(), dep));
+                                this.missing.put(key, new MissingBuilder(node.platform(), dep.project()).add(node));
+                            }
+                        }
+                        case OPTIONAL -> {
+                            if (!this.inPack.contains(key) && this.inPack.contains(node.key())) {
+                                this.optional.computeIfAbsent(key, k -> new OptionalDependency(node.platform(), dep.project(), new ArrayList<>())).requiredBy().add(node.slug());
+                            }
+                        }
+                        case INCOMPATIBLE -> this.declaredIncompatible.computeIfAbsent(node.key(), k -> new LinkedHashSet<>()).add(key);
+                        case EMBEDDED -> {}
+                    }
+                }
+            }
+            List<String> keys = List.copyOf(toFetch.keySet());
+            List<Optional<Node>> fetched = this.offline ? keys.stream().map(key -> Optional.<Node>empty()).toList() : PackDevExecutor.map(keys, key -> this.candidate(toFetch.get(key)));
+            List<Node> next = new ArrayList<>();
+            for (int i = 0; i < keys.size(); i++) {
+                this.missing.get(keys.get(i)).candidate = fetched.get(i).orElse(null);
+                if (fetched.get(i).isPresent()) {
+                    Node node = fetched.get(i).get();
+                    this.known.put(node.key(), node);
+                    next.add(node);
+                }
+            }
+            this.optional.keySet().removeAll(this.missing.keySet());
+            level = next;
+        }
+        this.checkIncompatible();
+    }
+
+    // Each pair is reported once, even if both mods declare the incompatibility
+    private void checkIncompatible() {
+        Set<Set<String>> reported = new HashSet<>();
+        for (Map.Entry<String, Set<String>> entry : this.declaredIncompatible.entrySet()) {
+            Node node = this.known.get(entry.getKey());
+            for (String key : entry.getValue()) {
+                Node other = this.known.get(key);
+                if (other != null && !key.equals(node.key()) && reported.add(Set.of(node.key(), other.key()))) {
+                    this.incompatible.add(new Incompatibility(node.slug(), other.slug()));
+                }
+            }
+        }
+    }
+
+    private static Node packNode(ModFile file) {
+        if (file instanceof CurseFile cf) {
+            return new Node(Platform.CURSE, Integer.toString(cf.projectId), Integer.toString(cf.fileId), cf.projectSlug(), cf.fileSide(), cf.dependencies());
+        } else if (file instanceof ModrinthFile mf) {
+            return new Node(Platform.MODRINTH, mf.canonicalProjectId(), mf.versionId, mf.projectSlug(), mf.fileSide(), mf.dependencies());
+        } else {
+            throw new IllegalArgumentException("No dependency metadata for " + file);
+        }
+    }
+
+    private Optional<Node> candidate(Dependency dependency) throws IOException {
+        String project = dependency.dependency().project();
+        return switch (dependency.platform()) {
+            case CURSE -> {
+                int projectId = Integer.parseInt(project);
+                Optional<FileInfo> latest = CurseUtil.getLatestFile(projectId, this.loader, this.minecraft);
+                if (latest.isEmpty()) yield Optional.empty();
+                yield Optional.of(new Node(Platform.CURSE, project, Integer.toString(latest.get().fileId()), CurseUtil.getSlug(projectId), Side.COMMON, CurseFile.dependencies(latest.get())));
+            }
+            case MODRINTH -> {
+                Optional<VersionInfo> version = dependency.dependency().file().isPresent()
+                        ? Optional.of(ModrinthAPI.version(dependency.dependency().file().get()))
+                        : ModrinthAPI.latestVersion(project, this.loader, this.minecraft);
+                if (version.isEmpty()) yield Optional.empty();
+                yield Optional.of(new Node(Platform.MODRINTH, project, version.get().id(), ModrinthAPI.project(project).slug(), Side.COMMON, version.get().dependencies()));
+            }
+        };
+    }
+
+    public enum Platform {
+        CURSE, MODRINTH
+    }
+
+    private record Node(Platform platform, String project, String file, String slug, Side side, List<ModDependency> dependencies) {
+
+        public String key() {
+            return this.platform + ":" + this.project;
+        }
+    }
+
+    private record Dependency(Platform platform, ModDependency dependency) {}
+
+    // A required project that is not in the pack. The candidate is the version that would be added.
+    public record Missing(Platform platform, String project, Optional<String> slug, Optional<String> file, Side side, List<String> requiredBy) {}
+
+    public record OptionalDependency(Platform platform, String project, List<String> requiredBy) {}
+
+    public record Incompatibility(String mod, String incompatibleWith) {}
+
+    private class MissingBuilder {
+
+        private final Platform platform;
+        private final String project;
+        private final Set<String> requiredBy = new TreeSet<>();
+        private boolean client = false;
+        private boolean server = false;
+        private Node candidate = null;
+
+        private MissingBuilder(Platform platform, String project) {
+            this.platform = platform;
+            this.project = project;
+        }
+
+        // Missing dependencies are needed on every side of the mods that require them
+        private MissingBuilder add(Node node) {
+            this.requiredBy.add(node.slug());
+            Side side = DependencyGraph.this.inPack.contains(node.key()) ? node.side() : DependencyGraph.this.sideOf(node.key());
+            this.client |= side.client;
+            this.server |= side.server;
+            return this;
+        }
+
+        private Missing build() {
+            Side side = this.client && this.server ? Side.COMMON : (this.server ? Side.SERVER : Side.CLIENT);
+            return new Missing(this.platform, this.project,
+                    Optional.ofNullable(this.candidate).map(Node::slug), Optional.ofNullable(this.candidate).map(Node::file),
+                    side, List.copyOf(this.requiredBy));
+        }
+    }
+
+    // Side of a missing dependency, as far as it is known at this point
+    private Side sideOf(String key) {
+        MissingBuilder builder = this.missing.get(key);
+        if (builder == null || (builder.client && builder.server)) return Side.COMMON;
+        return builder.server ? Side.SERVER : Side.CLIENT;
+    }
+}
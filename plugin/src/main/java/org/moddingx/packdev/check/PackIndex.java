@@ -0,0 +1,181 @@
+package org.moddingx.packdev.check;
+
+import jakarta.annotation.Nullable;
+import org.moddingx.launcherlib.util.Side;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Index of all classes and resources in a pack, including nested Jar-in-Jar libraries.
+// Each entry name maps to the units it is found in, together with the crc of its contents.
+public class PackIndex {
+
+    private static final int MAX_DEPTH = 4;
+    private static final Pattern VERSIONED_JAR = Pattern.compile("^(.+?)-(\\d[\\w.+-]*)\\.jar$");
+
+    private final List<Unit> units;
+    private final Map<String, long[]> entries;
+
+    private PackIndex(List<Unit> units, Map<String, long[]> entries) {
+        this.units = units;
+        this.entries = entries;
+    }
+
+    // Scans a single mod jar. Can be called from multiple threads.
+    public static List<ScannedUnit> scan(String mod, Side side, ByteBuffer jar) throws IOException {
+        List<ScannedUnit> result = new ArrayList<>();
+        scan(mod, null, side, jar, 0, result);
+        return result;
+    }
+
+    private static void scan(String mod, @Nullable String nested, Side side, ByteBuffer jar, int depth, List<ScannedUnit> result) throws IOException {
+        List<ZipDirectory.Entry> entries = ZipDirectory.read(jar);
+        List<String> names = new ArrayList<>(entries.size());
+        long[] crcs = new long[entries.size()];
+        for (ZipDirectory.Entry entry : entries) {
+            if (entry.isDirectory()) continue;
+            if (entry.name().startsWith("META-INF/") && entry.name().endsWith(".jar")) {
+                if (depth < MAX_DEPTH) {
+                    String fileName = entry.name().substring(entry.name().lastIndexOf('/') + 1);
+                    scan(mod, fileName, side, ZipDirectory.open(jar, entry), depth + 1, result);
+                }
+            } else if (isRelevant(entry.name())) {
+                crcs[names.size()] = entry.crc();
+                names.add(entry.name());
+            }
+        }
+        result.add(new ScannedUnit(mod, nested, side, List.copyOf(names), Arrays.copyOf(crcs, names.size())));
+    }
+
+    // Metadata, signatures, service files and root files such as pack.mcmeta exist in nearly every jar.
+    private static boolean isRelevant(String name) {
+        return !name.startsWith("META-INF/") && name.indexOf('/') >= 0 && !name.endsWith("module-info.class");
+    }
+
+    public static PackIndex build(List<ScannedUnit> scanned) {
+        // Loaders only load one copy of nested jars with the same name, so they are merged into one unit.
+        Map<String, Integer> unitIds = new HashMap<>();
+        List<Unit> units = new ArrayList<>();
+        Map<String, long[]> entries = new HashMap<>();
+        for (ScannedUnit scan : scanned) {
+            String key = scan.nested() == null ? "mod:" + scan.mod() : "jij:" + scan.nested();
+            Integer id = unitIds.get(key);
+            if (id == null) {
+                id = units.size();
+                unitIds.put(key, id);
+                units.add(new Unit(scan.mod(), scan.nested(), scan.side(), new TreeSet<>(Set.of(scan.mod()))));
+            } else {
+                Unit unit = units.get(id);
+                unit.providers().add(scan.mod());
+                if (unit.side() != scan.side()) {
+                    units.set(id, new Unit(unit.mod(), unit.nested(), Side.COMMON, unit.providers()));
+                }
+                continue;
+            }
+            // Each occurrence is packed as unit id and crc in two longs
+            for (int i = 0; i < scan.names().size(); i++) {
+                long[] old = entries.get(scan.names().get(i));
+                long[] occurrences = old == null ? new long[2] : Arrays.copyOf(old, old.length + 2);
+                occurrences[occurrences.length - 2] = id;
+                occurrences[occurrences.length - 1] = scan.crcs()[i];
+                entries.put(scan.names().get(i), occurrences);
+            }
+        }
+        return new PackIndex(List.copyOf(units), entries);
+    }
+
+    public int entryCount() {
+        return this.entries.size();
+    }
+
+    public int unitCount() {
+        return this.units.size();
+    }
+
+    // Entries found in more than one unit that can be loaded on the same side, grouped by the units involved.
+    // Different versions of the same nested library are left out, the loader only keeps one of them. See libraryVersions.
+    public List<Overlap> overlaps() {
+        Map<List<Integer>, OverlapBuilder> groups = new HashMap<>();
+        for (Map.Entry<String, long[]> entry : this.entries.entrySet()) {
+            long[] occurrences = entry.getValue();
+            if (occurrences.length <= 2) continue;
+            TreeSet<Integer> ids = new TreeSet<>();
+            Set<Long> crcs = new HashSet<>();
+            for (int i = 0; i < occurrences.length; i += 2) {
+                ids.add((int) occurrences[i]);
+                crcs.add(occurrences[i + 1]);
+            }
+            if (!this.sharesSide(ids) || this.sameLibrary(ids)) continue;
+            OverlapBuilder builder = groups.computeIfAbsent(List.copyOf(ids), k -> new OverlapBuilder());
+            builder.count += 1;
+            if (crcs.size() > 1) builder.differing += 1;
+            if (builder.examples.size() < 5 || entry.getKey().compareTo(builder.examples.last()) < 0) {
+                builder.examples.add(entry.getKey());
+                if (builder.examples.size() > 5) builder.examples.pollLast();
+            }
+        }
+        return groups.entrySet().stream()
+                .map(e -> new Overlap(e.getKey().stream().map(this.units::get).toList(), e.getValue().count, e.getValue().differing, List.copyOf(e.getValue().examples)))
+                .sorted(Comparator.comparingInt(Overlap::differing).thenComparingInt(Overlap::count).reversed())
+                .toList();
+    }
+
+    // Nested libraries that are bundled in different versions by different mods.
+    public Map<String, SortedMap<String, SortedSet<String>>> libraryVersions() {
+        Map<String, SortedMap<String, SortedSet<String>>> libraries = new TreeMap<>();
+        for (Unit unit : this.units) {
+            if (unit.nested() == null) continue;
+            Matcher m = VERSIONED_JAR.matcher(unit.nested());
+            if (!m.matches()) continue;
+            libraries.computeIfAbsent(m.group(1), k -> new TreeMap<>()).computeIfAbsent(m.group(2), k -> new TreeSet<>()).addAll(unit.providers());
+        }
+        libraries.values().removeIf(versions -> versions.size() <= 1);
+        return libraries;
+    }
+
+    private boolean sameLibrary(Set<Integer> ids) {
+        String library = null;
+        for (int id : ids) {
+            String nested = this.units.get(id).nested();
+            if (nested == null) return false;
+            Matcher m = VERSIONED_JAR.matcher(nested);
+            if (!m.matches() || (library != null && !library.equals(m.group(1)))) return false;
+            library = m.group(1);
+        }
+        return true;
+    }
+
+    private boolean sharesSide(Set<Integer> ids) {
+        boolean client = false;
+        boolean server = false;
+        for (int id : ids) {
+            Side side = this.units.get(id).side();
+            if ((client && side.client) || (server && side.server)) return true;
+            client |= side.client;
+            server |= side.server;
+        }
+        return false;
+    }
+
+    public record ScannedUnit(String mod, @Nullable String nested, Side side, List<String> names, long[] crcs) {}
+
+    // A jar on the classpath: A mod or a nested library. providers contains all mods that bundle this nested library.
+    public record Unit(String mod, @Nullable String nested, Side side, SortedSet<String> providers) {
+
+        @Override
+        public String toString() {
+            return this.nested == null ? this.mod : this.nested + " (in " + String.join(", ", this.providers) + ")";
+        }
+    }
+
+    public record Overlap(List<Unit> units, int count, int differing, List<String> examples) {}
+
+    private static class OverlapBuilder {
+        private int count = 0;
+        private int differing = 0;
+        private final TreeSet<String> examples = new TreeSet<>();
+    }
+}
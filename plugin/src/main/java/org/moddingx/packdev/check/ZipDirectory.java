@@ -0,0 +1,154 @@
+package org.moddingx.packdev.check;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+// Reads the central directory of a zip file from a buffer, without extracting anything.
+// Jars are memory-mapped, nested jars are sliced from their parent if stored and inflated in memory otherwise.
+public class ZipDirectory {
+
+    private static final int EOCD_SIGNATURE = 0x06054b50;
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+    private static final int ZIP64_EOCD_SIGNATURE = 0x06064b50;
+    private static final int CENTRAL_SIGNATURE = 0x02014b50;
+    private static final int LOCAL_SIGNATURE = 0x04034b50;
+    private static final int EOCD_SIZE = 22;
+    private static final int MAX_COMMENT = 0xFFFF;
+    private static final long MAX_NESTED_SIZE = 256 * 1024 * 1024;
+
+    public static ByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return buffer.order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    public static List<Entry> read(ByteBuffer zip) throws IOException {
+        try {
+            int eocd = findEndOfCentralDirectory(zip);
+            long count = Short.toUnsignedInt(zip.getShort(eocd + 10));
+            long offset = Integer.toUnsignedLong(zip.getInt(eocd + 16));
+            if (count == 0xFFFF || offset == 0xFFFFFFFFL) {
+                int locator = eocd - 20;
+                if (locator >= 0 && zip.getInt(locator) == ZIP64_LOCATOR_SIGNATURE) {
+                    int zip64 = toInt(zip.getLong(locator + 8));
+                    if (zip.getInt(zip64) != ZIP64_EOCD_SIGNATURE) throw new IOException("Invalid zip64 end of central directory");
+                    count = zip.getLong(zip64 + 32);
+                    offset = zip.getLong(zip64 + 48);
+                }
+            }
+
+            List<Entry> entries = new ArrayList<>(toInt(Math.min(count, 65536)));
+            int pos = toInt(offset);
+            for (long i = 0; i < count; i++) {
+                if (zip.getInt(pos) != CENTRAL_SIGNATURE) throw new IOException("Invalid central directory entry at " + pos);
+                int method = Short.toUnsignedInt(zip.getShort(pos + 10));
+                long crc = Integer.toUnsignedLong(zip.getInt(pos + 16));
+                long compressedSize = Integer.toUnsignedLong(zip.getInt(pos + 20));
+                long size = Integer.toUnsignedLong(zip.getInt(pos + 24));
+                int nameLength = Short.toUnsignedInt(zip.getShort(pos + 28));
+                int extraLength = Short.toUnsignedInt(zip.getShort(pos + 30));
+                int commentLength = Short.toUnsignedInt(zip.getShort(pos + 32));
+                long localOffset = Integer.toUnsignedLong(zip.getInt(pos + 42));
+                String name = string(zip, pos + 46, nameLength);
+
+                // Zip64 extended information contains the values that are set to 0xFFFFFFFF in the header, in this order.
+                int extra = pos + 46 + nameLength;
+                int extraEnd = extra + extraLength;
+                while (extra + 4 <= extraEnd) {
+                    int id = Short.toUnsignedInt(zip.getShort(extra));
+                    int length = Short.toUnsignedInt(zip.getShort(extra + 2));
+                    if (id == 0x0001) {
+                        int field = extra + 4;
+                        if (size == 0xFFFFFFFFL) { size = zip.getLong(field); field += 8; }
+                        if (compressedSize == 0xFFFFFFFFL) { compressedSize = zip.getLong(field); field += 8; }
+                        if (localOffset == 0xFFFFFFFFL) { localOffset = zip.getLong(field); }
+                    }
+                    extra += 4 + length;
+                }
+
+                entries.add(new Entry(name, method, crc, compressedSize, size, localOffset));
+                pos = extraEnd + commentLength;
+            }
+            return entries;
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("Truncated zip file", e);
+        }
+    }
+
+    // Contents of a nested entry. Stored entries share memory with the parent buffer.
+    public static ByteBuffer open(ByteBuffer zip, Entry entry) throws IOException {
+        try {
+            int local = toInt(entry.localHeaderOffset());
+            if (zip.getInt(local) != LOCAL_SIGNATURE) throw new IOException("Invalid local header for " + entry.name());
+            int nameLength = Short.toUnsignedInt(zip.getShort(local + 26));
+            int extraLength = Short.toUnsignedInt(zip.getShort(local + 28));
+            int data = local + 30 + nameLength + extraLength;
+            ByteBuffer compressed = zip.slice(data, toInt(entry.compressedSize()));
+            return switch (entry.method()) {
+                case 0 -> compressed.order(ByteOrder.LITTLE_ENDIAN);
+                case 8 -> inflate(compressed, entry);
+                default -> throw new IOException("Unsupported compression method " + entry.method() + " for " + entry.name());
+            };
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("Truncated zip entry: " + entry.name(), e);
+        }
+    }
+
+    private static ByteBuffer inflate(ByteBuffer compressed, Entry entry) throws IOException {
+        if (entry.size() > MAX_NESTED_SIZE) throw new IOException("Nested jar too large: " + entry.name());
+        byte[] data = new byte[toInt(entry.size())];
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(compressed);
+            int read = 0;
+            while (read < data.length && !inflater.finished()) {
+                int n = inflater.inflate(data, read, data.length - read);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                read += n;
+            }
+            if (read != data.length) throw new IOException("Corrupt nested jar: " + entry.name());
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt nested jar: " + entry.name(), e);
+        } finally {
+            inflater.end();
+        }
+        return ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static int findEndOfCentralDirectory(ByteBuffer zip) throws IOException {
+        int min = Math.max(0, zip.limit() - EOCD_SIZE - MAX_COMMENT);
+        for (int pos = zip.limit() - EOCD_SIZE; pos >= min; pos--) {
+            if (zip.getInt(pos) == EOCD_SIGNATURE) return pos;
+        }
+        throw new IOException("Not a zip file: End of central directory not found");
+    }
+
+    private static String string(ByteBuffer zip, int pos, int length) {
+        byte[] bytes = new byte[length];
+        zip.get(pos, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int toInt(long value) throws IOException {
+        if (value < 0 || value > Integer.MAX_VALUE) throw new IOException("Zip file too large");
+        return (int) value;
+    }
+
+    public record Entry(String name, int method, long crc, long compressedSize, long size, long localHeaderOffset) {
+
+        public boolean isDirectory() {
+            return this.name.endsWith("/");
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package org.moddingx.packdev.loader;
+
+import org.gradle.api.Project;
+import org.moddingx.packdev.platform.ModFile;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Selects the mods that a loader remaps for IDE support.
+// Set through the packdev.remap project property: all (default), none or a comma separated list of project slugs.
+public class RemapSelection {
+
+    public static final String PROPERTY = "packdev.remap";
+
+    public static final RemapSelection ALL = new RemapSelection(true, Set.of());
+    public static final RemapSelection NONE = new RemapSelection(false, Set.of());
+
+    private final boolean all;
+    private final Set<String> slugs;
+
+    private RemapSelection(boolean all, Set<String> slugs) {
+        this.all = all;
+        this.slugs = slugs;
+    }
+
+    public static RemapSelection get(Project project) {
+        Object value = project.getProperties().get(PROPERTY);
+        if (value == null) return ALL;
+        String str = value.toString().strip().toLowerCase(Locale.ROOT);
+        return switch (str) {
+            case "all", "*" -> ALL;
+            case "none", "" -> NONE;
+            default -> new RemapSelection(false, Arrays.stream(str.split(","))
+                    .map(String::strip)
+                    .filter(slug -> !slug.isEmpty())
+                    .collect(Collectors.toUnmodifiableSet()));
+        };
+    }
+
+    public boolean isAll() {
+        return this.all;
+    }
+
+    public boolean shouldRemap(ModFile file) {
+        return this.all || this.slugs.contains(file.projectSlug().toLowerCase(Locale.ROOT));
+    }
+}
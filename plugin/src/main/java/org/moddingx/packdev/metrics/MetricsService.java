@@ -0,0 +1,56 @@
+package org.moddingx.packdev.metrics;
+
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.provider.Property;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+import org.gradle.tooling.events.FinishEvent;
+import org.gradle.tooling.events.OperationCompletionListener;
+import org.moddingx.packdev.util.Util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Lives for a single build. Resets the metrics when created and writes the report when the build finishes.
+// Enabled through the packdev.metrics project property: true writes the report, console also prints a summary.
+public abstract class MetricsService implements BuildService<MetricsService.Parameters>, OperationCompletionListener, AutoCloseable {
+
+    public static final String PROPERTY = "packdev.metrics";
+    private static final Logger LOGGER = Logging.getLogger(MetricsService.class);
+
+    public MetricsService() {
+        PackDevMetrics.reset();
+    }
+
+    @Override
+    public void onFinish(FinishEvent event) {
+        // Only registered, so the service is created in every build
+    }
+
+    @Override
+    public void close() {
+        if (PackDevMetrics.isEmpty()) return;
+        try {
+            Path dir = this.getParameters().getReportDirectory().get().getAsFile().toPath();
+            Files.createDirectories(dir);
+            Files.writeString(dir.resolve("metrics.json"), Util.GSON.toJson(PackDevMetrics.toJson()) + "\n", StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+            Files.writeString(dir.resolve("metrics.html"), PackDevMetrics.toHtml("PackDev build metrics"), StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+            if (this.getParameters().getConsoleSummary().get()) {
+                LOGGER.lifecycle(PackDevMetrics.summary());
+                LOGGER.lifecycle("PackDev metrics written to " + dir.toAbsolutePath().normalize());
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    public interface Parameters extends BuildServiceParameters {
+        DirectoryProperty getReportDirectory();
+        Property<Boolean> getConsoleSummary();
+    }
+}
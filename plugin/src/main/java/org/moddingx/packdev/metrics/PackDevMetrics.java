@@ -0,0 +1,148 @@
+package org.moddingx.packdev.metrics;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Counters and latency histograms for network, cache, hashing and archive work.
+// Recording is always on as it is cheap, reports are written by the MetricsService.
+public class PackDevMetrics {
+
+    // Upper bounds of the histogram buckets in milliseconds, the last bucket is unbounded.
+    private static final long[] BUCKETS = { 1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000 };
+
+    private static final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private static final Map<String, Histogram> timers = new ConcurrentHashMap<>();
+
+    public static void count(String name) {
+        count(name, 1);
+    }
+
+    public static void count(String name, long amount) {
+        counters.computeIfAbsent(name, k -> new LongAdder()).add(amount);
+    }
+
+    public static Timer time(String name) {
+        return new Timer(timers.computeIfAbsent(name, k -> new Histogram()), System.nanoTime());
+    }
+
+    public static synchronized void reset() {
+        counters.clear();
+        timers.clear();
+    }
+
+    public static synchronized boolean isEmpty() {
+        return counters.isEmpty() && timers.isEmpty();
+    }
+
+    public static synchronized JsonObject toJson() {
+        JsonObject json = new JsonObject();
+        JsonObject counterJson = new JsonObject();
+        new TreeMap<>(counters).forEach((name, value) -> counterJson.addProperty(name, value.sum()));
+        json.add("counters", counterJson);
+        JsonObject timerJson = new JsonObject();
+        new TreeMap<>(timers).forEach((name, histogram) -> timerJson.add(name, histogram.toJson()));
+        json.add("timers", timerJson);
+        return json;
+    }
+
+    public static synchronized String toHtml(String title) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("<!DOCTYPE html>\n<html>\n<head><meta charset=\"utf-8\"><title>").append(escape(title)).append("</title>\n");
+        sb.append("<style>body{font-family:sans-serif}table{border-collapse:collapse;margin-bottom:2em}td,th{border:1px solid #ccc;padding:4px 8px;text-align:right}td:first-child,th:first-child{text-align:left}</style>\n");
+        sb.append("</head>\n<body>\n<h1>").append(escape(title)).append("</h1>\n");
+        sb.append("<h2>Timers</h2>\n<table>\n<tr><th>Name</th><th>Count</th><th>Total</th><th>Mean</th><th>Max</th>");
+        for (long bucket : BUCKETS) sb.append("<th>&le;").append(bucket).append("ms</th>");
+        sb.append("<th>&gt;").append(BUCKETS[BUCKETS.length - 1]).append("ms</th></tr>\n");
+        new TreeMap<>(timers).forEach((name, histogram) -> {
+            long count = histogram.count.sum();
+            sb.append("<tr><td>").append(escape(name)).append("</td><td>").append(count).append("</td>");
+            sb.append("<td>").append(formatNanos(histogram.totalNanos.sum())).append("</td>");
+            sb.append("<td>").append(formatNanos(count == 0 ? 0 : histogram.totalNanos.sum() / count)).append("</td>");
+            sb.append("<td>").append(formatNanos(histogram.maxNanos.get())).append("</td>");
+            for (int i = 0; i < histogram.buckets.length(); i++) sb.append("<td>").append(histogram.buckets.get(i)).append("</td>");
+            sb.append("</tr>\n");
+        });
+        sb.append("</table>\n<h2>Counters</h2>\n<table>\n<tr><th>Name</th><th>Value</th></tr>\n");
+        new TreeMap<>(counters).forEach((name, value) -> sb.append("<tr><td>").append(escape(name)).append("</td><td>").append(value.sum()).append("</td></tr>\n"));
+        sb.append("</table>\n</body>\n</html>\n");
+        return sb.toString();
+    }
+
+    public static synchronized String summary() {
+        StringBuilder sb = new StringBuilder("PackDev build summary\n");
+        new TreeMap<>(timers).forEach((name, histogram) -> {
+            long count = histogram.count.sum();
+            sb.append(String.format(Locale.ROOT, "  %-32s %6d calls  total %10s  mean %10s  max %10s%n", name, count,
+                    formatNanos(histogram.totalNanos.sum()), formatNanos(count == 0 ? 0 : histogram.totalNanos.sum() / count), formatNanos(histogram.maxNanos.get())));
+        });
+        new TreeMap<>(counters).forEach((name, value) -> sb.append(String.format(Locale.ROOT, "  %-32s %12d%n", name, value.sum())));
+        return sb.toString();
+    }
+
+    private static String formatNanos(long nanos) {
+        return String.format(Locale.ROOT, "%.1fms", nanos / 1000000d);
+    }
+
+    private static String escape(String str) {
+        return str.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+
+    public static final class Timer implements AutoCloseable {
+
+        private final Histogram histogram;
+        private final long start;
+
+        private Timer(Histogram histogram, long start) {
+            this.histogram = histogram;
+            this.start = start;
+        }
+
+        @Override
+        public void close() {
+            this.histogram.record(System.nanoTime() - this.start);
+        }
+    }
+
+    private static final class Histogram {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS.length + 1);
+
+        private void record(long nanos) {
+            this.count.increment();
+            this.totalNanos.add(nanos);
+            this.maxNanos.accumulate(nanos);
+            long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+            int bucket = 0;
+            while (bucket < BUCKETS.length && millis > BUCKETS[bucket]) bucket += 1;
+            this.buckets.incrementAndGet(bucket);
+        }
+
+        private JsonObject toJson() {
+            JsonObject json = new JsonObject();
+            json.addProperty("count", this.count.sum());
+            json.addProperty("total_ms", this.totalNanos.sum() / 1000000d);
+            json.addProperty("max_ms", this.maxNanos.get() / 1000000d);
+            JsonArray bucketJson = new JsonArray();
+            for (int i = 0; i < this.buckets.length(); i++) {
+                JsonObject entry = new JsonObject();
+                if (i < BUCKETS.length) entry.addProperty("le_ms", BUCKETS[i]);
+                entry.addProperty("count", this.buckets.get(i));
+                bucketJson.add(entry);
+            }
+            json.add("buckets", bucketJson);
+            return json;
+        }
+    }
+}
@@ -2,13 +2,17 @@ package org.moddingx.packdev.platform;
 
 import com.google.common.io.CountingInputStream;
 import org.gradle.api.Project;
+import org.moddingx.packdev.cache.FileStat;
 import org.moddingx.packdev.cache.PackDevCache;
+import org.moddingx.packdev.metrics.PackDevMetrics;
+import org.moddingx.packdev.util.PackDevExecutor;
 import org.moddingx.packdev.util.curse.MurmurHasher;
 import org.moddingx.packdev.util.hash.ComputedHash;
 import org.moddingx.packdev.util.hash.HashAlgorithm;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
@@ -16,11 +20,16 @@ import java.security.DigestInputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 public abstract class BaseModFile implements ModFile {
     
     protected final Project project;
     private final PackDevCache cache;
+    private final Lock downloadLock = new ReentrantLock();
 
     protected BaseModFile(Project project, PackDevCache cache) {
         this.project = project;
@@ -29,18 +38,172 @@ public abstract class BaseModFile implements ModFile {
 
     // Some unique string within the platform
     protected abstract String fileKey();
+    
+    // Key of this file in the PackDev cache and in modlist.lock
+    public final String cacheKey() {
+        return this.fileKey();
+    }
+    
+    // Match of this file on another platform. Matches are stored with the metadata, so they end up in the cache and in modlist.lock.
+    public final Optional<String> getMatch(String key) {
+        return Optional.ofNullable(this.cache.getMetadata(this.fileKey(), "match." + key));
+    }
+    
+    public final void setMatch(String key, String value) {
+        this.cache.updateMetadata(this.fileKey(), "match." + key, value);
+        ComputedHash sha1 = this.cache.getHash(this.fileKey(), "sha1");
+        if (sha1 != null) this.cache.updateIndexedMatch(sha1, key, value);
+    }
+    
+    // Looks up a match in the metadata of this file and then in the cross-platform index of the cache.
+    // The index is keyed by sha1, which the platforms usually provide, so this should not need to download the file.
+    public final Optional<String> findMatch(String key) throws IOException {
+        Optional<String> match = this.getMatch(key);
+        if (match.isPresent()) return match;
+        ComputedHash sha1;
+        try {
+            sha1 = this.hash("sha1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("Can't look up cross-platform match for " + this.fileKey() + ": sha1 not supported", e);
+        }
+        String value = this.cache.getIndexedMatch(sha1, key);
+        if (value == null) return Optional.empty();
+        PackDevMetrics.count("cache.match.hit");
+        this.setMatch(key, value);
+        return Optional.of(value);
+    }
+    
+    // A hash of this file obtained elsewhere, for example from a platform that matched the file by another hash.
+    public final void addKnownHash(String algorithm, ComputedHash hash) {
+        if (this.cache.getHash(this.fileKey(), algorithm) == null) {
+            this.cache.updateHash(this.fileKey(), algorithm, hash);
+        }
+    }
+    
+    // Adds a match for a file known to the platform to the cross-platform index.
+    protected final void indexMatch(ComputedHash sha1, String key, String value) {
+        this.cache.updateIndexedMatch(sha1, key, value);
+    }
+    
+    protected final boolean isOffline() {
+        return this.cache.isOffline();
+    }
+    
+    // Fails fast in offline mode, before any platform api is queried.
+    protected final void requireOnline(String what) {
+        if (this.cache.isOffline()) {
+            throw new IllegalStateException("PackDev is offline and " + what + " of " + this.fileKey() + " is not cached. Build once without offline mode to populate the cache.");
+        }
+    }
+    
+    // An immutable metadata value of this file. Once stored in the PackDev cache, it is never queried again.
+    protected final String metadata(String key, Supplier<String> remote) {
+        String value = this.cache.getMetadata(this.fileKey(), key);
+        if (value == null) {
+            this.requireOnline(key);
+            value = remote.get();
+            this.cache.updateMetadata(this.fileKey(), key, value);
+        }
+        return value;
+    }
+    
+    // Project data that can change on the platform, like names and owners. When online, this is always queried through
+    // the platform and written to the cache, so offline mode can still use it. Values pinned by modlist.lock always win.
+    protected final String projectMetadata(String key, Supplier<String> remote) {
+        String locked = this.cache.getLockedMetadata(this.fileKey(), key);
+        if (locked != null) return locked;
+        if (this.isOffline()) return this.metadata(key, remote);
+        String value = remote.get();
+        this.cache.updateMetadata(this.fileKey(), key, value);
+        return value;
+    }
+
+    // Dependencies declared on the platform. Platforms without dependency metadata have none.
+    public List<ModDependency> dependencies() {
+        return List.of();
+    }
 
     @Override
     public final InputStream openStream() throws IOException {
+        return Files.newInputStream(this.cachedFile());
+    }
+    
+    // Path of the file in the PackDev cache. Downloads the file if it is not yet cached.
+    // The returned file must not be modified. Use a LinkMode to place it somewhere else.
+    // Concurrent calls for the same file wait for a single download.
+    // A cached file is only hashed again if its stats changed since it was last verified.
+    public final Path cachedFile() throws IOException {
         Path cachePath = this.cache.getCachePath("files", this.fileKey() + ".jar");
-        if (!Files.isRegularFile(cachePath) || Files.size(cachePath) <= 0) {
-            try(InputStream remote = this.openRemoteStream()) {
-                Files.copy(remote, cachePath, StandardCopyOption.REPLACE_EXISTING);
-            } catch (IOException e) {
-                Files.deleteIfExists(cachePath);
+        this.downloadLock.lock();
+        try {
+            FileStat stat = Files.isRegularFile(cachePath) ? FileStat.read(cachePath) : null;
+            if (stat != null && stat.size() > 0 && stat.equals(this.cache.getFileStat(this.fileKey()))) {
+                PackDevMetrics.count("cache.file.hit");
+                return cachePath;
             }
+            if (stat != null && stat.size() > 0) {
+                Optional<String> mismatch = this.verify(cachePath);
+                if (mismatch.isEmpty()) {
+                    PackDevMetrics.count("cache.file.verified");
+                    this.cache.updateFileStat(this.fileKey(), FileStat.read(cachePath));
+                    return cachePath;
+                }
+                System.err.println("Warning: Cached file of " + this.fileKey() + " is corrupt (" + mismatch.get() + "), downloading it again.");
+            }
+            PackDevMetrics.count("cache.file.miss");
+            this.cache.removeFileStat(this.fileKey());
+            Files.deleteIfExists(cachePath);
+            this.requireOnline("the file");
+            // Download into a temporary file, so an interrupted download never shows up in the cache
+            Path tempPath = Files.createTempFile(cachePath.getParent(), this.fileKey() + ".", ".part");
+            try {
+                PackDevExecutor.io(this.downloadURL(), () -> {
+                    try(PackDevMetrics.Timer timer = PackDevMetrics.time("download"); InputStream remote = this.openRemoteStream()) {
+                        PackDevMetrics.count("download.bytes", Files.copy(remote, tempPath, StandardCopyOption.REPLACE_EXISTING));
+                    }
+                    return null;
+                });
+                Optional<String> mismatch = this.verify(tempPath);
+                if (mismatch.isPresent()) {
+                    throw new IOException("Downloaded file of " + this.fileKey() + " does not match the platform: " + mismatch.get());
+                }
+                try {
+                    Files.move(tempPath, cachePath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(tempPath, cachePath, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(tempPath);
+            }
+            this.cache.updateFileStat(this.fileKey(), FileStat.read(cachePath));
+        } finally {
+            this.downloadLock.unlock();
+        }
+        return cachePath;
+    }
+    
+    // Checks a file against the size and the strongest known hash. Hashes from the platform take precedence over cached ones.
+    // Returns a description of the mismatch, if any.
+    private Optional<String> verify(Path path) throws IOException {
+        Map<String, ComputedHash> expected = new HashMap<>(this.cache.getAllHashes(this.fileKey()));
+        if (!this.isOffline()) expected.putAll(this.platformHashes());
+        if (expected.containsKey("size") && expected.get("size").longValue() != Files.size(path)) {
+            return Optional.of("size " + Files.size(path) + ", expected " + expected.get("size").longValue());
         }
-        return Files.newInputStream(cachePath);
+        Optional<String> algorithm = Stream.of(HashAlgorithm.SHA512, HashAlgorithm.SHA256, HashAlgorithm.SHA1, HashAlgorithm.MD5)
+                .map(alg -> alg.id).filter(expected::containsKey).findFirst()
+                .or(() -> Optional.of("fingerprint").filter(expected::containsKey));
+        if (algorithm.isEmpty()) return Optional.empty();
+        ComputedHash actual;
+        try {
+            actual = hashFile(path, Set.of(algorithm.get())).get(algorithm.get());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("Can't verify " + this.fileKey(), e);
+        }
+        if (!actual.equals(expected.get(algorithm.get()))) {
+            return Optional.of(algorithm.get() + " " + actual.hexDigest() + ", expected " + expected.get(algorithm.get()).hexDigest());
+        }
+        return Optional.empty();
     }
     
     protected InputStream openRemoteStream() throws IOException {
@@ -55,8 +218,10 @@ public abstract class BaseModFile implements ModFile {
             String algorithm = key.toLowerCase(Locale.ROOT);
             ComputedHash hash = this.cache.getHash(this.fileKey(), algorithm);
             if (hash != null) {
+                PackDevMetrics.count("cache.hash.hit");
                 result.put(algorithm, hash);
             } else {
+                PackDevMetrics.count("cache.hash.miss");
                 hashesLeft.add(algorithm);
             }
         }
@@ -78,8 +243,35 @@ public abstract class BaseModFile implements ModFile {
         return Collections.unmodifiableMap(result);
     }
     
+    // Hashes provided by the platform. These are used instead of computing them from the file and to verify downloads.
+    // Only queried when online.
+    protected Map<String, ComputedHash> platformHashes() {
+        return Map.of();
+    }
+    
     protected Map<String, ComputedHash> computeHashes(Set<String> hashes) throws NoSuchAlgorithmException, IOException {
-        if (hashes.isEmpty()) return Map.of();
+        Map<String, ComputedHash> result = new HashMap<>();
+        // Take everything the platform provides. Only the rest is computed from the file, which needs a download.
+        // In offline mode, hashes that are not cached are always computed from the cached file.
+        Map<String, ComputedHash> platform = this.isOffline() ? Map.of() : this.platformHashes();
+        Set<String> hashesLeft = new HashSet<>();
+        for (String hash : hashes) {
+            if (platform.containsKey(hash)) {
+                result.put(hash, platform.get(hash));
+            } else if (HashAlgorithm.get(hash) != null || Objects.equals(hash, "fingerprint") || Objects.equals(hash, "size")) {
+                hashesLeft.add(hash);
+            } else {
+                throw new NoSuchAlgorithmException("Can't compute " + hash + " hash for file: " + this.fileKey());
+            }
+        }
+        if (!hashesLeft.isEmpty()) {
+            // Download first, so the CPU pool only hashes
+            result.putAll(hashFile(this.cachedFile(), hashesLeft));
+        }
+        return Collections.unmodifiableMap(result);
+    }
+    
+    private static Map<String, ComputedHash> hashFile(Path path, Set<String> hashes) throws NoSuchAlgorithmException, IOException {
         Map<String, ComputedHash> result = new HashMap<>();
         Map<HashAlgorithm, MessageDigest> digests = new HashMap<>();
         for (String hash : hashes) {
@@ -87,34 +279,33 @@ public abstract class BaseModFile implements ModFile {
             if (algorithm != null) {
                 digests.put(algorithm, algorithm.createDigest());
             } else if (!Objects.equals(hash, "fingerprint") && !Objects.equals(hash, "size")) {
-                throw new NoSuchAlgorithmException("Can't compute " + hash + " hash for file: " + this.fileKey());
+                throw new NoSuchAlgorithmException("Can't compute " + hash + " hash for file: " + path.getFileName());
             }
         }
-        try (InputStream in = this.openStream()) {
-            InputStream current = in;
-            CountingInputStream counter = null;
-            if (hashes.contains("size")) {
-                counter = new CountingInputStream(current);
-                current = counter;
-            }
-            for (MessageDigest digest : digests.values()) {
-                current = new DigestInputStream(current, digest);
-            }
-            if (hashes.contains("fingerprint")) {
-                byte[] data = current.readAllBytes();
-                result.put("fingerprint", ComputedHash.of(((long) MurmurHasher.hash(data)) & 0xFFFFFFFFl, 32));
-            } else {
-                byte[] buffer = new byte[8192];
-                //noinspection StatementWithEmptyBody
-                while (current.read(buffer) >= 0);
-            }
-            if (counter != null) {
-                result.put("size", ComputedHash.ofSignedLong(counter.getCount()));
-            }
-            for (Map.Entry<HashAlgorithm, MessageDigest> entry : digests.entrySet()) {
-                result.put(entry.getKey().id, ComputedHash.of(entry.getValue().digest(), entry.getKey().bits));
+        return PackDevExecutor.cpu(() -> {
+            try (PackDevMetrics.Timer timer = PackDevMetrics.time("hash"); InputStream in = Files.newInputStream(path)) {
+                CountingInputStream counter = new CountingInputStream(in);
+                InputStream current = counter;
+                for (MessageDigest digest : digests.values()) {
+                    current = new DigestInputStream(current, digest);
+                }
+                if (hashes.contains("fingerprint")) {
+                    byte[] data = current.readAllBytes();
+                    result.put("fingerprint", ComputedHash.of(((long) MurmurHasher.hash(data)) & 0xFFFFFFFFl, 32));
+                } else {
+                    byte[] buffer = new byte[8192];
+                    //noinspection StatementWithEmptyBody
+                    while (current.read(buffer) >= 0);
+                }
+                PackDevMetrics.count("hash.bytes", counter.getCount());
+                if (hashes.contains("size")) {
+                    result.put("size", ComputedHash.ofSignedLong(counter.getCount()));
+                }
+                for (Map.Entry<HashAlgorithm, MessageDigest> entry : digests.entrySet()) {
+                    result.put(entry.getKey().id, ComputedHash.of(entry.getValue().digest(), entry.getKey().bits));
+                }
             }
-        }
-        return result;
+            return result;
+        });
     }
 }
@@ -0,0 +1,48 @@
+package org.moddingx.packdev.platform;
+
+import java.util.*;
+
+// Dependency of a file on a project of the same platform. The file is only set, if the platform pins a specific file.
+public record ModDependency(String project, Optional<String> file, Type type) {
+
+    // Dependencies as stored in the PackDev cache: type:project[:file], separated by commas
+    public static String encode(List<ModDependency> dependencies) {
+        StringJoiner joiner = new StringJoiner(",");
+        for (ModDependency dependency : dependencies) {
+            joiner.add(dependency.type().id + ":" + dependency.project() + dependency.file().map(file -> ":" + file).orElse(""));
+        }
+        return joiner.toString();
+    }
+
+    public static List<ModDependency> decode(String encoded) {
+        List<ModDependency> dependencies = new ArrayList<>();
+        for (String part : encoded.split(",")) {
+            if (part.isEmpty()) continue;
+            String[] fields = part.split(":", 3);
+            if (fields.length < 2) throw new IllegalArgumentException("Invalid dependency: " + part);
+            dependencies.add(new ModDependency(fields[1], fields.length == 3 ? Optional.of(fields[2]) : Optional.empty(), Type.byId(fields[0])));
+        }
+        return Collections.unmodifiableList(dependencies);
+    }
+
+    public enum Type {
+        REQUIRED("required"),
+        OPTIONAL("optional"),
+        INCOMPATIBLE("incompatible"),
+        // Shipped inside the file itself, nothing to check
+        EMBEDDED("embedded");
+
+        public final String id;
+
+        Type(String id) {
+            this.id = id;
+        }
+
+        public static Type byId(String id) {
+            for (Type type : values()) {
+                if (type.id.equals(id)) return type;
+            }
+            throw new IllegalArgumentException("Unknown dependency type: " + id);
+        }
+    }
+}
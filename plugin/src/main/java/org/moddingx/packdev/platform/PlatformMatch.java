@@ -0,0 +1,9 @@
+package org.moddingx.packdev.platform;
+
+// Keys for matches of a file on other platforms, see BaseModFile#findMatch
+public class PlatformMatch {
+
+    public static final String CURSE_PROJECT = "curseforge.project";
+    public static final String CURSE_FILE = "curseforge.file";
+    public static final String MODRINTH_URL = "modrinth.url";
+}
@@ -8,14 +8,15 @@ import org.moddingx.launcherlib.util.Artifact;
 import org.moddingx.launcherlib.util.Side;
 import org.moddingx.packdev.cache.PackDevCache;
 import org.moddingx.packdev.platform.BaseModFile;
+import org.moddingx.packdev.platform.ModDependency;
+import org.moddingx.packdev.platform.PlatformMatch;
 import org.moddingx.packdev.util.curse.CurseUtil;
 import org.moddingx.packdev.util.hash.ComputedHash;
+import org.moddingx.packdev.util.hash.HashAlgorithm;
 
 import java.io.IOException;
 import java.net.URI;
-import java.security.NoSuchAlgorithmException;
 import java.util.*;
-import java.util.stream.Collectors;
 
 public class CurseFile extends BaseModFile {
 
@@ -23,7 +24,6 @@ public class CurseFile extends BaseModFile {
     public final int fileId;
     public final Side side;
     
-    @Nullable private String slug;
     @Nullable private ProjectInfo projectInfo;
     @Nullable private FileInfo fileInfo;
     
@@ -41,24 +41,24 @@ public class CurseFile extends BaseModFile {
 
     @Override
     public String projectSlug() {
-        if (this.slug == null) {
+        return this.projectMetadata("slug", () -> {
+            if (this.projectInfo != null) return this.projectInfo.slug();
             try {
-                this.slug = CurseUtil.API.getSlug(this.projectId);
+                return CurseUtil.getSlug(this.projectId);
             } catch (IOException e) {
                 throw new RuntimeException(e);
             }
-        }
-        return this.slug;
+        });
     }
 
     @Override
     public String projectName() {
-        return this.projectInfo().name();
+        return this.projectMetadata("name", () -> this.projectInfo().name());
     }
 
     @Override
     public String fileName() {
-        return this.fileInfo().name();
+        return this.metadata("file_name", () -> this.fileInfo().name());
     }
 
     @Override
@@ -74,12 +74,13 @@ public class CurseFile extends BaseModFile {
 
     @Override
     public URI projectURL() {
-        return this.projectInfo().website();
+        return URI.create(this.projectMetadata("project_url", () -> this.projectInfo().website().toString()));
     }
 
     @Override
     public Optional<Owner> projectOwner() {
-        return Optional.of(new Owner(this.projectInfo().owner(), URI.create("https://www.curseforge.com/members/" + this.projectInfo().owner() + "/projects")));
+        String owner = this.projectMetadata("owner", () -> this.projectInfo().owner());
+        return Optional.of(new Owner(owner, URI.create("https://www.curseforge.com/members/" + owner + "/projects")));
     }
 
     @Override
@@ -88,19 +89,29 @@ public class CurseFile extends BaseModFile {
     }
 
     @Override
-    protected Map<String, ComputedHash> computeHashes(Set<String> hashes) throws NoSuchAlgorithmException, IOException {
-        Map<String, ComputedHash> computed = new HashMap<>();
-        if (hashes.contains("size")) {
-            computed.put("size", ComputedHash.ofSignedLong(this.fileInfo().fileSize()));
-        } else if (hashes.contains("fingerprint")) {
-            computed.put("fingerprint", ComputedHash.of(this.fileInfo().fingerprint() & 0xFFFFFFFFl, 32));
-        } else if (hashes.contains("sha1") && this.fileInfo().hashes().containsKey("sha1")) {
-            computed.put("sha1", ComputedHash.of(this.fileInfo().hashes().get("sha1"), 160));
-        } else if (hashes.contains("md5") && this.fileInfo().hashes().containsKey("md5")) {
-            computed.put("md5", ComputedHash.of(this.fileInfo().hashes().get("md5"), 128));
+    protected Map<String, ComputedHash> platformHashes() {
+        Map<String, ComputedHash> hashes = new HashMap<>();
+        hashes.put("size", ComputedHash.ofSignedLong(this.fileInfo().fileSize()));
+        hashes.put("fingerprint", ComputedHash.of(this.fileInfo().fingerprint() & 0xFFFFFFFFl, 32));
+        for (Map.Entry<String, String> entry : this.fileInfo().hashes().entrySet()) {
+            HashAlgorithm algorithm = HashAlgorithm.get(entry.getKey());
+            if (algorithm != null) hashes.put(algorithm.id, ComputedHash.of(entry.getValue(), algorithm.bits));
         }
-        computed.putAll(super.computeHashes(hashes.stream().filter(hash -> !computed.containsKey(hash)).collect(Collectors.toUnmodifiableSet())));
-        return Collections.unmodifiableMap(computed);
+        return Collections.unmodifiableMap(hashes);
+    }
+
+    @Override
+    public List<ModDependency> dependencies() {
+        return ModDependency.decode(this.metadata("dependencies", () -> ModDependency.encode(dependencies(this.fileInfo()))));
+    }
+
+    public static List<ModDependency> dependencies(FileInfo info) {
+        return info.dependencies().stream().map(dep -> new ModDependency(Integer.toString(dep.projectId()), Optional.empty(), switch (dep.type()) {
+            case REQUIRED -> ModDependency.Type.REQUIRED;
+            case INCOMPATIBLE -> ModDependency.Type.INCOMPATIBLE;
+            case EMBEDDED -> ModDependency.Type.EMBEDDED;
+            default -> ModDependency.Type.OPTIONAL;
+        })).toList();
     }
 
     @Override
@@ -110,9 +121,9 @@ public class CurseFile extends BaseModFile {
 
     public ProjectInfo projectInfo() {
         if (this.projectInfo == null) {
+            this.requireOnline("project info");
             try {
-                this.projectInfo = CurseUtil.API.getProject(this.projectId);
-                this.slug = this.projectInfo.slug();
+                this.projectInfo = CurseUtil.getProject(this.projectId);
             } catch (IOException e) {
                 throw new RuntimeException(e);
             }
@@ -122,11 +133,17 @@ public class CurseFile extends BaseModFile {
     
     public FileInfo fileInfo() {
         if (this.fileInfo == null) {
+            this.requireOnline("file info");
             try {
-                this.fileInfo = CurseUtil.API.getFile(this.projectId, this.fileId);
+                this.fileInfo = CurseUtil.getFile(this.projectId, this.fileId);
             } catch (IOException e) {
                 throw new RuntimeException(e);
             }
+            if (this.fileInfo.hashes().containsKey("sha1")) {
+                ComputedHash sha1 = ComputedHash.of(this.fileInfo.hashes().get("sha1"), 160);
+                this.indexMatch(sha1, PlatformMatch.CURSE_PROJECT, Integer.toString(this.projectId));
+                this.indexMatch(sha1, PlatformMatch.CURSE_FILE, Integer.toString(this.fileId));
+            }
         }
         return this.fileInfo;
     }
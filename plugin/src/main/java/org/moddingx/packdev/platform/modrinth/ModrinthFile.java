@@ -6,16 +6,16 @@ import org.moddingx.launcherlib.util.Artifact;
 import org.moddingx.launcherlib.util.Side;
 import org.moddingx.packdev.cache.PackDevCache;
 import org.moddingx.packdev.platform.BaseModFile;
+import org.moddingx.packdev.platform.ModDependency;
+import org.moddingx.packdev.platform.PlatformMatch;
 import org.moddingx.packdev.platform.modrinth.api.ModrinthAPI;
 import org.moddingx.packdev.platform.modrinth.api.ProjectInfo;
 import org.moddingx.packdev.platform.modrinth.api.VersionInfo;
 import org.moddingx.packdev.util.hash.ComputedHash;
+import org.moddingx.packdev.util.hash.HashAlgorithm;
 
-import java.io.IOException;
 import java.net.URI;
-import java.security.NoSuchAlgorithmException;
 import java.util.*;
-import java.util.stream.Collectors;
 
 public class ModrinthFile extends BaseModFile {
 
@@ -27,6 +27,8 @@ public class ModrinthFile extends BaseModFile {
     @Nullable private VersionInfo versionInfo;
     @SuppressWarnings("OptionalUsedAsFieldOrParameterType")
     @Nullable private Optional<Owner> owner;
+    @SuppressWarnings("OptionalUsedAsFieldOrParameterType")
+    @Nullable private Optional<Owner> remoteOwner;
     
     public ModrinthFile(Project project, PackDevCache cache, String projectId, String versionId, Side side) {
         super(project, cache);
@@ -42,17 +44,17 @@ public class ModrinthFile extends BaseModFile {
 
     @Override
     public String projectSlug() {
-        return this.projectInfo().slug();
+        return this.projectMetadata("slug", () -> this.projectInfo().slug());
     }
 
     @Override
     public String projectName() {
-        return this.projectInfo().title();
+        return this.projectMetadata("name", () -> this.projectInfo().title());
     }
 
     @Override
     public String fileName() {
-        return this.versionInfo().fileName();
+        return this.metadata("file_name", () -> this.versionInfo().fileName());
     }
 
     @Override
@@ -62,22 +64,36 @@ public class ModrinthFile extends BaseModFile {
 
     @Override
     public URI downloadURL() {
-        return this.versionInfo().url();
+        return URI.create(this.metadata("download_url", () -> this.versionInfo().url().toString()));
     }
 
     @Override
     public URI projectURL() {
-        return this.projectInfo().projectPage();
+        return URI.create(this.projectMetadata("project_url", () -> this.projectInfo().projectPage().toString()));
     }
 
     @Override
     public Optional<Owner> projectOwner() {
         //noinspection OptionalAssignedToNull
         if (this.owner == null) {
-            this.owner = ModrinthAPI.owner(this.projectId);
+            // An empty owner name means, the project has no owner
+            String name = this.projectMetadata("owner", () -> this.loadOwner().map(Owner::name).orElse(""));
+            if (name.isEmpty()) {
+                this.owner = Optional.empty();
+            } else {
+                this.owner = Optional.of(new Owner(name, URI.create(this.projectMetadata("owner_url", () -> this.loadOwner().orElseThrow().website().toString()))));
+            }
         }
         return this.owner;
     }
+    
+    private Optional<Owner> loadOwner() {
+        //noinspection OptionalAssignedToNull
+        if (this.remoteOwner == null) {
+            this.remoteOwner = ModrinthAPI.owner(this.projectId);
+        }
+        return this.remoteOwner;
+    }
 
     @Override
     public Artifact createDependency() {
@@ -85,17 +101,24 @@ public class ModrinthFile extends BaseModFile {
     }
 
     @Override
-    protected Map<String, ComputedHash> computeHashes(Set<String> hashes) throws NoSuchAlgorithmException, IOException {
-        Map<String, ComputedHash> computed = new HashMap<>();
-        if (hashes.contains("size")) {
-            computed.put("size", ComputedHash.ofSignedLong(this.versionInfo().fileSize()));
-        } else if (hashes.contains("sha1") && this.versionInfo().hashes().containsKey("sha1")) {
-            computed.put("sha1", ComputedHash.of(this.versionInfo().hashes().get("sha1"), 160));
-        } else if (hashes.contains("sha512") && this.versionInfo().hashes().containsKey("sha512")) {
-            computed.put("sha512", ComputedHash.of(this.versionInfo().hashes().get("sha512"), 512));
+    protected Map<String, ComputedHash> platformHashes() {
+        Map<String, ComputedHash> hashes = new HashMap<>();
+        hashes.put("size", ComputedHash.ofSignedLong(this.versionInfo().fileSize()));
+        for (Map.Entry<String, String> entry : this.versionInfo().hashes().entrySet()) {
+            HashAlgorithm algorithm = HashAlgorithm.get(entry.getKey());
+            if (algorithm != null) hashes.put(algorithm.id, ComputedHash.of(entry.getValue(), algorithm.bits));
         }
-        computed.putAll(super.computeHashes(hashes.stream().filter(hash -> !computed.containsKey(hash)).collect(Collectors.toUnmodifiableSet())));
-        return Collections.unmodifiableMap(computed);
+        return Collections.unmodifiableMap(hashes);
+    }
+
+    // The modlist may reference the project by slug, dependencies always use the id.
+    public String canonicalProjectId() {
+        return this.metadata("project_id", () -> this.versionInfo().projectId());
+    }
+
+    @Override
+    public List<ModDependency> dependencies() {
+        return ModDependency.decode(this.metadata("dependencies", () -> ModDependency.encode(this.versionInfo().dependencies())));
     }
 
     @Override
@@ -105,6 +128,7 @@ public class ModrinthFile extends BaseModFile {
 
     public ProjectInfo projectInfo() {
         if (this.projectInfo == null) {
+            this.requireOnline("project info");
             this.projectInfo = ModrinthAPI.project(this.projectId);
         }
         return this.projectInfo;
@@ -112,7 +136,11 @@ public class ModrinthFile extends BaseModFile {
 
     public VersionInfo versionInfo() {
         if (this.versionInfo == null) {
+            this.requireOnline("version info");
             this.versionInfo = ModrinthAPI.version(this.versionId);
+            if (this.versionInfo.hashes().containsKey("sha1")) {
+                this.indexMatch(ComputedHash.of(this.versionInfo.hashes().get("sha1"), 160), PlatformMatch.MODRINTH_URL, this.versionInfo.url().toString());
+            }
         }
         return this.versionInfo;
     }
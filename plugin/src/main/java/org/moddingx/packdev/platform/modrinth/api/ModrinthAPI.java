@@ -3,8 +3,13 @@ package org.moddingx.packdev.platform.modrinth.api;
 import com.google.gson.*;
 import jakarta.annotation.Nullable;
 import org.moddingx.launcherlib.util.Either;
+import org.moddingx.packdev.metrics.PackDevMetrics;
+import org.moddingx.packdev.platform.ModDependency;
 import org.moddingx.packdev.platform.ModFile;
+import org.moddingx.packdev.util.DaemonCache;
+import org.moddingx.packdev.util.PackDevExecutor;
 import org.moddingx.packdev.util.hash.ComputedHash;
+import org.moddingx.packdev.util.hash.HashAlgorithm;
 
 import java.io.IOException;
 import java.net.URI;
@@ -14,14 +19,17 @@ import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.*;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 public class ModrinthAPI {
     
+    // Can be pointed to a local stand-in through a system property, for example for hermetic builds.
+    public static final String BASE_URL_PROPERTY = "packdev.api.modrinth";
     // Trailing slash is important, so URI#resolve works properly
-    private static final URI BASE_URL = URI.create("https://api.modrinth.com/v2/");
+    private static final URI BASE_URL = URI.create(withTrailingSlash(System.getProperty(BASE_URL_PROPERTY, "https://api.modrinth.com/v2/")));
     private static final HttpClient client = HttpClient.newHttpClient();
     
     public static final Gson GSON;
@@ -33,16 +41,21 @@ public class ModrinthAPI {
     }
     
     public static Map<ComputedHash, VersionInfo> files(Set<ComputedHash> hashes) {
+        return files(HashAlgorithm.SHA512, hashes);
+    }
+    
+    // Modrinth supports sha1 and sha512
+    public static Map<ComputedHash, VersionInfo> files(HashAlgorithm algorithm, Set<ComputedHash> hashes) {
         try {
             JsonArray array = new JsonArray();
             for (ComputedHash hash : hashes) array.add(hash.hexDigest());
             JsonObject request = new JsonObject();
-            request.addProperty("algorithm", "sha512");
+            request.addProperty("algorithm", algorithm.id);
             request.add("hashes", array);
             JsonObject json = request("version_files", Map.of(), request).getAsJsonObject();
             Map<ComputedHash, VersionInfo> map = new HashMap<>();
             for (Map.Entry<String, JsonElement> entry : json.entrySet()) {
-                ComputedHash hash = ComputedHash.of(entry.getKey(), 512);
+                ComputedHash hash = ComputedHash.of(entry.getKey(), algorithm.bits);
                 map.put(hash, version(entry.getValue().getAsJsonObject()));
             }
             return Collections.unmodifiableMap(map);
@@ -51,7 +64,47 @@ public class ModrinthAPI {
         }
     }
     
+    // Latest version for the given loader and minecraft version of each file. Files that are already up to date map to their own version.
+    public static Map<ComputedHash, VersionInfo> latestVersions(HashAlgorithm algorithm, Set<ComputedHash> hashes, String loader, String minecraft) throws IOException {
+        JsonArray array = new JsonArray();
+        for (ComputedHash hash : hashes) array.add(hash.hexDigest());
+        JsonArray loaders = new JsonArray();
+        loaders.add(loader);
+        JsonArray gameVersions = new JsonArray();
+        gameVersions.add(minecraft);
+        JsonObject request = new JsonObject();
+        request.addProperty("algorithm", algorithm.id);
+        request.add("hashes", array);
+        request.add("loaders", loaders);
+        request.add("game_versions", gameVersions);
+        JsonObject json = request("version_files/update", Map.of(), request).getAsJsonObject();
+        Map<ComputedHash, VersionInfo> map = new HashMap<>();
+        for (Map.Entry<String, JsonElement> entry : json.entrySet()) {
+            map.put(ComputedHash.of(entry.getKey(), algorithm.bits), version(entry.getValue().getAsJsonObject()));
+        }
+        return Collections.unmodifiableMap(map);
+    }
+    
+    // Latest version of a project for the given loader and minecraft version
+    public static Optional<VersionInfo> latestVersion(String projectId, String loader, String minecraft) throws IOException {
+        JsonArray array = request("project/" + URLEncoder.encode(projectId, StandardCharsets.UTF_8) + "/version", Map.of(
+                "loaders", "[\"" + loader + "\"]",
+                "game_versions", "[\"" + minecraft + "\"]"
+        )).getAsJsonArray();
+        // Newest versions come first
+        if (array.isEmpty()) return Optional.empty();
+        return Optional.of(version(array.get(0).getAsJsonObject()));
+    }
+    
+    private static final DaemonCache<String, ProjectInfo> projects = DaemonCache.expiring("modrinth.project", 4096, Duration.ofHours(1));
+    private static final DaemonCache<String, VersionInfo> versions = DaemonCache.immutable("modrinth.version", 16384);
+    private static final DaemonCache<String, Optional<ModFile.Owner>> owners = DaemonCache.expiring("modrinth.owner", 4096, Duration.ofHours(1));
+    
     public static ProjectInfo project(String projectId) {
+        return projects.get(projectId, () -> fetchProject(projectId));
+    }
+    
+    private static ProjectInfo fetchProject(String projectId) {
         try {
             JsonObject json = request("project/" + URLEncoder.encode(projectId, StandardCharsets.UTF_8)).getAsJsonObject();
             return new ProjectInfo(
@@ -65,6 +118,10 @@ public class ModrinthAPI {
     }
     
     public static VersionInfo version(String versionId) {
+        return versions.get(versionId, () -> fetchVersion(versionId));
+    }
+    
+    private static VersionInfo fetchVersion(String versionId) {
         try {
             JsonObject json = request("version/" + URLEncoder.encode(versionId, StandardCharsets.UTF_8)).getAsJsonObject();
             return version(json);
@@ -89,12 +146,38 @@ public class ModrinthAPI {
             for (Map.Entry<String, JsonElement> entry : file.get("hashes").getAsJsonObject().entrySet()) {
                 hashes.put(entry.getKey(), entry.getValue().getAsString());
             }
+            List<ModDependency> dependencies = new ArrayList<>();
+            if (json.has("dependencies")) {
+                for (JsonElement elem : json.get("dependencies").getAsJsonArray()) {
+                    JsonObject dep = elem.getAsJsonObject();
+                    Optional<String> depVersion = dep.has("version_id") && !dep.get("version_id").isJsonNull() ? Optional.of(dep.get("version_id").getAsString()) : Optional.empty();
+                    String depProject;
+                    if (dep.has("project_id") && !dep.get("project_id").isJsonNull()) {
+                        depProject = dep.get("project_id").getAsString();
+                    } else if (depVersion.isPresent()) {
+                        depProject = version(depVersion.get()).projectId();
+                    } else {
+                        // Dependency on an external file, nothing we can check
+                        continue;
+                    }
+                    ModDependency.Type type = switch (dep.get("dependency_type").getAsString()) {
+                        case "required" -> ModDependency.Type.REQUIRED;
+                        case "incompatible" -> ModDependency.Type.INCOMPATIBLE;
+                        case "embedded" -> ModDependency.Type.EMBEDDED;
+                        default -> ModDependency.Type.OPTIONAL;
+                    };
+                    dependencies.add(new ModDependency(depProject, depVersion, type));
+                }
+            }
             return new VersionInfo(
+                    json.get("id").getAsString(),
+                    json.get("project_id").getAsString(),
                     file.get("filename").getAsString(),
                     json.get("version_number").getAsString(),
                     file.get("size").getAsLong(),
                     new URI(file.get("url").getAsString()),
-                    Collections.unmodifiableMap(hashes)
+                    Collections.unmodifiableMap(hashes),
+                    Collections.unmodifiableList(dependencies)
             );
         } catch (URISyntaxException e) {
             throw new RuntimeException(e);
@@ -102,6 +185,10 @@ public class ModrinthAPI {
     }
     
     public static Optional<ModFile.Owner> owner(String projectId) {
+        return owners.get(projectId, () -> fetchOwner(projectId));
+    }
+    
+    private static Optional<ModFile.Owner> fetchOwner(String projectId) {
         try {
             JsonArray array = request("project/" + URLEncoder.encode(projectId, StandardCharsets.UTF_8) + "/members").getAsJsonArray();
             for (JsonElement elem : array) {
@@ -122,6 +209,10 @@ public class ModrinthAPI {
         }
     }
     
+    private static String withTrailingSlash(String url) {
+        return url.endsWith("/") ? url : url + "/";
+    }
+    
     private static JsonElement request(String route) throws IOException {
         return request(route, Map.of());
     }
@@ -139,7 +230,11 @@ public class ModrinthAPI {
                     .collect(Collectors.joining("&", "?", ""));
         }
         URI req = BASE_URL.resolve(routeStr + queryStr);
-        try {
+        return PackDevExecutor.io(req, () -> send(req, body));
+    }
+    
+    private static JsonElement send(URI req, @Nullable JsonElement body) throws IOException {
+        try (PackDevMetrics.Timer timer = PackDevMetrics.time("modrinth.api")) {
             HttpRequest.Builder builder;
             if (body == null) {
                 builder = HttpRequest.newBuilder().GET();
@@ -1,12 +1,18 @@
 package org.moddingx.packdev.platform.modrinth.api;
 
+import org.moddingx.packdev.platform.ModDependency;
+
 import java.net.URI;
+import java.util.List;
 import java.util.Map;
 
 public record VersionInfo(
+        String id,
+        String projectId,
         String fileName,
         String versionNumber,
         long fileSize,
         URI url,
-        Map<String, String> hashes
+        Map<String, String> hashes,
+        List<ModDependency> dependencies
 ) {}
@@ -0,0 +1,125 @@
+package org.moddingx.packdev.run;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.ListProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.Optional;
+import org.gradle.api.tasks.TaskAction;
+import org.moddingx.packdev.util.PackDevExecutor;
+import org.moddingx.packdev.util.file.FileOverlay;
+import org.moddingx.packdev.util.file.LinkMode;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.stream.Stream;
+
+// Incrementally synchronises the override data and mod files into a run directory.
+// Only files that changed (by size and modification time) are copied, and only files that were synced
+// previously or live in the mods folder are removed. Everything else the game creates in the run directory is kept.
+public abstract class SyncRunDataTask extends DefaultTask {
+
+    private static final String MODS = "mods";
+
+    public SyncRunDataTask() {
+        this.getLinkMode().convention(LinkMode.get(this.getProject()));
+        this.getStateFile().convention(this.getProject().getLayout().getBuildDirectory().file("packdev/sync/" + this.getName() + ".txt"));
+        // Checking whether anything changed is exactly what this task does itself
+        this.getOutputs().upToDateWhen(t -> false);
+    }
+
+    // Elements later in the list overwrite earlier ones
+    @Internal
+    public abstract ListProperty<File> getOverridePaths();
+
+    // Mod jars placed in the mods folder. These overwrite files with the same name from the overrides.
+    @InputFiles
+    @Optional
+    public abstract ConfigurableFileCollection getMods();
+
+    @Internal
+    public abstract DirectoryProperty getWorkingDirectory();
+
+    @Internal
+    public abstract RegularFileProperty getStateFile();
+
+    // How mod jars are placed into the mods folder
+    @Internal
+    public abstract Property<LinkMode> getLinkMode();
+
+    @TaskAction
+    public void sync() throws IOException {
+        Path workingDir = this.getWorkingDirectory().get().getAsFile().toPath().toAbsolutePath().normalize();
+        Path stateFile = this.getStateFile().get().getAsFile().toPath().toAbsolutePath().normalize();
+
+        LinkMode linkMode = this.getLinkMode().get();
+        FileOverlay overlay = FileOverlay.of(this.getOverridePaths().get().stream().map(File::toPath).toList());
+        Map<String, Path> files = new HashMap<>(overlay.files());
+        Set<String> modFiles = new HashSet<>();
+        for (File mod : this.getMods().getFiles()) {
+            if (mod.isFile()) {
+                String relative = MODS + "/" + mod.getName();
+                files.put(relative, mod.toPath());
+                modFiles.add(relative);
+            }
+        }
+
+        Set<String> stale = new HashSet<>(this.readState(stateFile));
+        Path modsDir = workingDir.resolve(MODS);
+        if (Files.isDirectory(modsDir)) {
+            try (Stream<Path> paths = Files.walk(modsDir)) {
+                paths.filter(Files::isRegularFile).forEach(path -> stale.add(FileOverlay.relativize(workingDir, path)));
+            }
+        }
+        stale.removeAll(files.keySet());
+        for (String relative : stale) {
+            Files.deleteIfExists(FileOverlay.resolve(workingDir, relative));
+        }
+
+        for (String dir : overlay.directories()) {
+            Files.createDirectories(FileOverlay.resolve(workingDir, dir));
+        }
+        Files.createDirectories(modsDir);
+
+        PackDevExecutor.forEach(files.entrySet(), entry -> {
+            Path target = FileOverlay.resolve(workingDir, entry.getKey());
+            if (!isUpToDate(entry.getValue(), target)) {
+                if (modFiles.contains(entry.getKey())) {
+                    linkMode.materialize(entry.getValue(), target);
+                } else {
+                    Files.copy(entry.getValue(), target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+                }
+            }
+        });
+
+        this.writeState(stateFile, files.keySet());
+    }
+
+    private List<String> readState(Path stateFile) throws IOException {
+        if (!Files.isRegularFile(stateFile)) return List.of();
+        return Files.readAllLines(stateFile, StandardCharsets.UTF_8).stream().filter(line -> !line.isBlank()).toList();
+    }
+
+    private void writeState(Path stateFile, Set<String> files) throws IOException {
+        if (!Files.isDirectory(stateFile.getParent())) {
+            Files.createDirectories(stateFile.getParent());
+        }
+        Files.write(stateFile, files.stream().sorted().toList(), StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    private static boolean isUpToDate(Path source, Path target) throws IOException {
+        if (!Files.isRegularFile(target)) return false;
+        BasicFileAttributes sourceAttributes = Files.readAttributes(source, BasicFileAttributes.class);
+        BasicFileAttributes targetAttributes = Files.readAttributes(target, BasicFileAttributes.class);
+        return sourceAttributes.size() == targetAttributes.size()
+                && sourceAttributes.lastModifiedTime().equals(targetAttributes.lastModifiedTime());
+    }
+}
@@ -0,0 +1,164 @@
+package org.moddingx.packdev.run;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.api.tasks.options.Option;
+import org.moddingx.launcherlib.util.Side;
+import org.moddingx.packdev.PackPaths;
+import org.moddingx.packdev.target.BaseTargetTask;
+
+import javax.inject.Inject;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Watches the override data and modlist.json until the build is cancelled.
+// Changed overrides are synced into the run directories right away. Optionally, the targets that contain
+// the changed data are rebuilt in the background. Events are debounced, so saving many files at once only syncs once.
+public abstract class WatchPackTask extends DefaultTask {
+
+    private final PackPaths paths;
+
+    @Inject
+    public WatchPackTask(PackPaths paths) {
+        this.paths = paths;
+        this.getDebounceMillis().convention(50);
+        this.getRebuildTargets().convention(false);
+        // Runs until cancelled
+        this.getOutputs().upToDateWhen(t -> false);
+        // Initial sync, this also resolves the mods for the run directories
+        this.dependsOn(this.getProject().getTasks().withType(SyncRunDataTask.class));
+    }
+
+    // Time without further changes before syncing
+    @Internal
+    public abstract Property<Integer> getDebounceMillis();
+
+    @Internal
+    @Option(option = "rebuild-targets", description = "Rebuild affected target archives in the background.")
+    public abstract Property<Boolean> getRebuildTargets();
+
+    @TaskAction
+    public void watch() throws IOException {
+        Path modList = this.getProject().file("modlist.json").toPath().toAbsolutePath().normalize();
+        Map<Side, Path> sidePaths = new EnumMap<>(Side.class);
+        for (Side side : Side.values()) {
+            sidePaths.put(side, this.paths.getPath(side).toAbsolutePath().normalize());
+        }
+        List<SyncRunDataTask> syncTasks = List.copyOf(this.getProject().getTasks().withType(SyncRunDataTask.class));
+        List<BaseTargetTask<?>> targets = this.getRebuildTargets().get() ? this.getProject().getTasks().withType(BaseTargetTask.class).stream().<BaseTargetTask<?>>map(t -> t).toList() : List.of();
+        long debounce = this.getDebounceMillis().get();
+
+        // Rebuilds run one at a time on a background thread, so syncing is never blocked by a slow target
+        ExecutorService rebuilds = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "packdev-watch-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Set<BaseTargetTask<?>> pendingRebuilds = Collections.synchronizedSet(new HashSet<>());
+
+        try (WatchService watcher = FileSystems.getDefault().newWatchService()) {
+            Map<WatchKey, Path> keys = new HashMap<>();
+            register(watcher, keys, modList.getParent(), false);
+            for (Path path : sidePaths.values()) {
+                if (Files.isDirectory(path)) register(watcher, keys, path, true);
+            }
+            if (Files.isDirectory(sidePaths.get(Side.COMMON).getParent())) {
+                register(watcher, keys, sidePaths.get(Side.COMMON).getParent(), false);
+            }
+            this.getLogger().lifecycle("Watching " + sidePaths.get(Side.COMMON).getParent() + " for changes. Cancel the build to stop.");
+
+            while (!Thread.currentThread().isInterrupted()) {
+                Set<Path> changed = new HashSet<>();
+                WatchKey key = watcher.take();
+                // Collect events until nothing changed for the debounce time
+                while (key != null) {
+                    Path dir = keys.get(key);
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (dir == null || event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            changed.addAll(sidePaths.values());
+                            continue;
+                        }
+                        Path path = dir.resolve((Path) event.context());
+                        changed.add(path);
+                        if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+                            // Side directories or sub directories created while watching
+                            if (sidePaths.containsValue(path) || sidePaths.values().stream().anyMatch(path::startsWith)) {
+                                register(watcher, keys, path, true);
+                            }
+                        }
+                    }
+                    if (!key.reset()) keys.remove(key);
+                    key = watcher.poll(debounce, TimeUnit.MILLISECONDS);
+                }
+
+                if (changed.contains(modList)) {
+                    System.err.println("Warning: modlist.json changed. Restart watchPack to pick up the new mods.");
+                }
+                Set<Side> sides = EnumSet.noneOf(Side.class);
+                for (Path path : changed) {
+                    for (Map.Entry<Side, Path> entry : sidePaths.entrySet()) {
+                        if (path.startsWith(entry.getValue())) sides.add(entry.getKey());
+                    }
+                }
+                if (sides.isEmpty()) continue;
+
+                long start = System.nanoTime();
+                for (SyncRunDataTask task : syncTasks) {
+                    boolean affected = task.getOverridePaths().get().stream()
+                            .map(File::toPath).map(p -> p.toAbsolutePath().normalize())
+                            .anyMatch(p -> sides.stream().map(sidePaths::get).anyMatch(p::equals));
+                    if (affected) {
+                        try {
+                            task.sync();
+                        } catch (IOException | RuntimeException e) {
+                            System.err.println("Warning: Failed to sync " + task.getName() + ": " + e.getMessage());
+                        }
+                    }
+                }
+                this.getLogger().lifecycle("Synced " + sides.stream().map(s -> s.id).sorted().toList() + " in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms.");
+
+                for (BaseTargetTask<?> target : targets) {
+                    if (sides.stream().anyMatch(target::usesOverrides) && pendingRebuilds.add(target)) {
+                        rebuilds.submit(() -> {
+                            pendingRebuilds.remove(target);
+                            try {
+                                target.rebuild();
+                                this.getLogger().lifecycle("Rebuilt " + target.getName() + ".");
+                            } catch (IOException | RuntimeException e) {
+                                System.err.println("Warning: Failed to rebuild " + target.getName() + ": " + e.getMessage());
+                            }
+                        });
+                    }
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Build was cancelled
+            Thread.currentThread().interrupt();
+        } finally {
+            rebuilds.shutdownNow();
+        }
+    }
+
+    private static void register(WatchService watcher, Map<WatchKey, Path> keys, Path path, boolean recursive) throws IOException {
+        if (!recursive) {
+            keys.put(path.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY), path);
+            return;
+        }
+        Files.walkFileTree(path, new SimpleFileVisitor<>() {
+
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                keys.put(dir.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY), dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
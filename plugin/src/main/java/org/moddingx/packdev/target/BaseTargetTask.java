@@ -8,10 +8,12 @@ import org.gradle.api.tasks.InputFiles;
 import org.gradle.api.tasks.TaskAction;
 import org.gradle.api.tasks.bundling.AbstractArchiveTask;
 import org.gradle.work.InputChanges;
+import org.gradle.workers.WorkerExecutor;
 import org.moddingx.launcherlib.launcher.Launcher;
 import org.moddingx.launcherlib.util.Side;
 import org.moddingx.packdev.PackPaths;
 import org.moddingx.packdev.PackSettings;
+import org.moddingx.packdev.metrics.PackDevMetrics;
 import org.moddingx.packdev.platform.ModFile;
 import org.moddingx.packdev.platform.ModdingPlatform;
 
@@ -28,6 +30,7 @@ public abstract class BaseTargetTask<T extends ModFile> extends AbstractArchiveT
     protected final PackPaths paths;
     protected final Launcher launcher;
     protected final List<T> files;
+    protected final PackResolver resolver;
 
     private final Property<FileCollection> inputData = this.getProject().getObjects().property(FileCollection.class);
 
@@ -38,11 +41,13 @@ public abstract class BaseTargetTask<T extends ModFile> extends AbstractArchiveT
         this.paths = settings.paths();
         this.launcher = settings.launcher();
         this.files = files;
+        this.resolver = settings.resolver();
 
         this.getArchiveExtension().convention(this.getProject().provider(() -> "zip"));
 
         this.inputData.convention(this.getProject().provider(() -> this.getProject().files(
                 this.getProject().file("modlist.json"),
+                this.getProject().file("modlist.lock"),
                 this.getProject().file("data/" + Side.COMMON.id),
                 this.getProject().file("data/" + Side.CLIENT.id),
                 this.getProject().file("data/" + Side.SERVER.id)
@@ -67,12 +72,43 @@ public abstract class BaseTargetTask<T extends ModFile> extends AbstractArchiveT
         return copy -> () -> true;
     }
 
+    @Inject
+    protected abstract WorkerExecutor getWorkerExecutor();
+
+    // The archive is written by a work action, so independent targets are built at the same time.
     @TaskAction
     public void generateOutput(InputChanges inputs) throws IOException {
+        Path target = this.prepareTarget();
+        GenerateTargetAction.submit(this.getWorkerExecutor().noIsolation(), () -> this.generateTo(target));
+    }
+
+    // Rebuilds the archive right away, outside the task graph. Used by watchPack.
+    public void rebuild() throws IOException {
+        this.generateTo(this.prepareTarget());
+    }
+
+    // Whether the archive contains override data of the given side
+    public boolean usesOverrides(Side side) {
+        return true;
+    }
+
+    // Fetches everything this target needs from the network into the PackDev cache. Used by warmPackDevCache.
+    public void warm() throws IOException {
+        this.resolver.resolve();
+    }
+
+    private Path prepareTarget() throws IOException {
         Path target = this.getArchiveFile().get().getAsFile().toPath().toAbsolutePath().normalize();
         if (!Files.exists(target.getParent())) Files.createDirectories(target.getParent());
         if (Files.exists(target)) Files.delete(target);
-        this.generate(target);
+        return target;
+    }
+
+    private void generateTo(Path target) throws IOException {
+        try (PackDevMetrics.Timer timer = PackDevMetrics.time("target." + this.getName())) {
+            this.generate(target);
+        }
+        if (Files.isRegularFile(target)) PackDevMetrics.count("target.bytes", Files.size(target));
     }
 
     protected abstract void generate(Path target) throws IOException;
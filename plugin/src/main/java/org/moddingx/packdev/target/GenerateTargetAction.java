@@ -0,0 +1,53 @@
+package org.moddingx.packdev.target;
+
+import org.gradle.api.provider.Property;
+import org.gradle.workers.WorkAction;
+import org.gradle.workers.WorkParameters;
+import org.gradle.workers.WorkQueue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Generates a target archive as work action, so gradle can build all targets of a project at the same time.
+// Targets work on the in-memory mod files, which can't be passed as work parameters. As the actions run
+// without isolation in the same daemon, they are handed over through a map and only their id is passed on.
+public abstract class GenerateTargetAction implements WorkAction<GenerateTargetAction.Parameters> {
+
+    private static final Map<String, Generator> pending = new ConcurrentHashMap<>();
+
+    public static void submit(WorkQueue queue, Generator generator) {
+        String id = UUID.randomUUID().toString();
+        pending.put(id, generator);
+        try {
+            queue.submit(GenerateTargetAction.class, params -> params.getGeneratorId().set(id));
+        } catch (RuntimeException e) {
+            pending.remove(id);
+            throw e;
+        }
+    }
+
+    @Override
+    public void execute() {
+        String id = this.getParameters().getGeneratorId().get();
+        Generator generator = pending.remove(id);
+        if (generator == null) throw new IllegalStateException("Target generator not found: " + id);
+        try {
+            generator.generate();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public interface Parameters extends WorkParameters {
+
+        Property<String> getGeneratorId();
+    }
+
+    @FunctionalInterface
+    public interface Generator {
+        void generate() throws IOException;
+    }
+}
@@ -4,8 +4,10 @@ import com.google.gson.JsonObject;
 import groovy.json.StringEscapeUtils;
 import org.moddingx.launcherlib.util.Side;
 import org.moddingx.packdev.PackSettings;
+import org.moddingx.packdev.platform.BaseModFile;
 import org.moddingx.packdev.platform.ModFile;
 import org.moddingx.packdev.platform.ModdingPlatform;
+import org.moddingx.packdev.util.PackDevExecutor;
 import org.moddingx.packdev.util.Util;
 import org.moddingx.packdev.util.multimc.MultiMcAPI;
 
@@ -25,6 +27,17 @@ public class MultiMcPack<T extends ModFile> extends BaseTargetTask<T> {
         super(platform, settings, files);
     }
 
+    @Override
+    public boolean usesOverrides(Side side) {
+        return side != Side.SERVER;
+    }
+
+    @Override
+    public void warm() throws IOException {
+        super.warm();
+        MultiMcAPI.buildLoaderPack(this.settings.loader(), this.settings.minecraft(), this.settings.loaderVersion());
+    }
+
     @Override
     protected void generate(Path target) throws IOException {
         try (FileSystem fs = FileSystems.newFileSystem(URI.create("jar:" + target.toUri()), Map.of(
@@ -47,8 +60,8 @@ public class MultiMcPack<T extends ModFile> extends BaseTargetTask<T> {
         String meta = this.settings.name() + " - " + this.settings.version() + this.settings.author().map(name -> " (by " + name + ")").orElse("") + "\n\n";
         
         List<ModListEntry> entries = new ArrayList<>();
-        for (ModFile file : this.files.stream().sorted(Comparator.comparing(ModFile::projectSlug)).toList()) {
-            entries.add(new ModListEntry(file.projectName(), file.projectOwner().map(ModFile.Owner::name), file.fileName(), file.projectURL()));
+        for (ResolvedPack.Entry file : this.resolver.resolve().entries().stream().sorted(Comparator.comparing(ResolvedPack.Entry::slug)).toList()) {
+            entries.add(new ModListEntry(file.name(), file.owner().map(ModFile.Owner::name), file.fileName(), file.projectURL()));
         }
         int namePadding = entries.stream().mapToInt(ModListEntry::namePadding).max().orElse(3);
         int authorPadding = entries.stream().mapToInt(ModListEntry::authorPadding).max().orElse(0);
@@ -64,14 +77,17 @@ public class MultiMcPack<T extends ModFile> extends BaseTargetTask<T> {
     }
     
     private void downloadMods(Path base) throws IOException {
-        for (ModFile file : this.files) {
-            if (file.fileSide().client) {
-                Path dest = base.resolve(file.fileName());
+        PackDevExecutor.forEach(this.files.stream().filter(file -> file.fileSide().client).toList(), file -> {
+            Path dest = base.resolve(file.fileName());
+            if (file instanceof BaseModFile cached) {
+                // Zip archives can't link to the cache, but we can at least copy from the file directly.
+                Files.copy(cached.cachedFile(), dest);
+            } else {
                 try (InputStream in = file.openStream()) {
                     Files.copy(in, dest);
                 }
             }
-        }
+        });
     }
     
     private record ModListEntry(String name, Optional<String> author, String fileName, URI url) {
@@ -0,0 +1,128 @@
+package org.moddingx.packdev.target;
+
+import org.moddingx.packdev.PackSettings;
+import org.moddingx.packdev.platform.BaseModFile;
+import org.moddingx.packdev.platform.ModFile;
+import org.moddingx.packdev.platform.ModdingPlatform;
+import org.moddingx.packdev.metrics.PackDevMetrics;
+import org.moddingx.packdev.util.PackDevExecutor;
+import org.moddingx.packdev.util.hash.ComputedHash;
+import org.moddingx.packdev.util.hash.HashAlgorithm;
+
+import javax.inject.Inject;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.*;
+
+// Server pack with all mods and the loader installer bundled, so installing the pack does not need
+// CurseForge, Modrinth or the loader maven. Jars don't compress any further, so the archive is stored uncompressed.
+// The loader installer itself still needs to download the minecraft server and libraries.
+public class OfflineServerPack<T extends ModFile> extends ServerPack<T> {
+
+    @Inject
+    public OfflineServerPack(ModdingPlatform<T> platform, PackSettings settings, List<T> files) {
+        super(platform, settings, files);
+    }
+
+    @Override
+    protected Map<String, ?> archiveOptions(Path target) {
+        Map<String, Object> options = new HashMap<>(super.archiveOptions(target));
+        options.put("noCompression", true);
+        return Map.copyOf(options);
+    }
+
+    @Override
+    protected String dockerfileTemplate() {
+        return "Dockerfile-offline";
+    }
+
+    @Override
+    protected void generateBundledFiles(FileSystem fs) throws IOException {
+        // install.py skips mods that are already present with the hash from server.txt
+        Path mods = fs.getPath("mods");
+        Files.createDirectories(mods);
+        ResolvedPack pack = this.resolver.resolve();
+        for (ModFile file : this.files.stream().sorted(this.platform.internalOrder()).toList()) {
+            ResolvedPack.Entry entry = pack.get(file);
+            if (entry.side().server) {
+                Path dest = mods.resolve(entry.fileName().replace("/", ""));
+                if (file instanceof BaseModFile cached) {
+                    Path cachedFile = cached.cachedFile();
+                    verify(entry, cachedFile);
+                    Files.copy(cachedFile, dest);
+                } else {
+                    try (InputStream in = file.openStream()) {
+                        Files.copy(in, dest);
+                    }
+                    verify(entry, dest);
+                }
+            }
+        }
+
+        // install.py uses a present installer.jar instead of downloading it.
+        Files.copy(this.cachedInstaller(), fs.getPath("installer.jar"));
+    }
+
+    // Installers are kept in the PackDev cache. They are verified against the sha1 from the maven once, when they are downloaded.
+    private Path cachedInstaller() throws IOException {
+        URI installer = this.installerURL();
+        String fileName = installer.getPath().substring(installer.getPath().lastIndexOf('/') + 1);
+        Path cachePath = this.settings.cache().getCachePath("installers", this.settings.loader(), fileName);
+        if (Files.isRegularFile(cachePath) && Files.size(cachePath) > 0) {
+            PackDevMetrics.count("cache.installer.hit");
+            return cachePath;
+        }
+        PackDevMetrics.count("cache.installer.miss");
+        if (this.settings.offline()) {
+            throw new IOException("PackDev is offline and the installer " + fileName + " is not cached. Build once without offline mode to populate the cache.");
+        }
+        Optional<String> expected = PackDevExecutor.io(installer, () -> {
+            try (InputStream in = URI.create(installer + ".sha1").toURL().openStream()) {
+                return Optional.of(new String(in.readAllBytes(), StandardCharsets.UTF_8).strip().split("\\s+")[0].toLowerCase(Locale.ROOT));
+            } catch (FileNotFoundException e) {
+                System.err.println("Warning: No sha1 for installer " + fileName + ", it is not verified.");
+                return Optional.<String>empty();
+            }
+        });
+        Path tempPath = Files.createTempFile(cachePath.getParent(), fileName + ".", ".part");
+        try {
+            MessageDigest digest = HashAlgorithm.SHA1.createDigest();
+            PackDevExecutor.io(installer, () -> {
+                try (PackDevMetrics.Timer timer = PackDevMetrics.time("download"); InputStream in = new DigestInputStream(installer.toURL().openStream(), digest)) {
+                    PackDevMetrics.count("download.bytes", Files.copy(in, tempPath, StandardCopyOption.REPLACE_EXISTING));
+                }
+                return null;
+            });
+            String actual = ComputedHash.of(digest.digest(), HashAlgorithm.SHA1.bits).hexDigest();
+            if (expected.isPresent() && !expected.get().equals(actual)) {
+                throw new IOException("Can't build offline server pack: Hash mismatch for installer " + fileName + ": expected " + expected.get() + ", got " + actual);
+            }
+            Files.move(tempPath, cachePath, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tempPath);
+        }
+        return cachePath;
+    }
+
+    private static void verify(ResolvedPack.Entry file, Path path) throws IOException {
+        ComputedHash expected = file.hash("sha1");
+        MessageDigest digest = HashAlgorithm.SHA1.createDigest();
+        try (InputStream in = new DigestInputStream(Files.newInputStream(path), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        ComputedHash actual = ComputedHash.of(digest.digest(), HashAlgorithm.SHA1.bits);
+        if (!expected.equals(actual)) {
+            throw new IOException("Can't build offline server pack: Hash mismatch for " + file.file() + ": expected " + expected.hexDigest() + ", got " + actual.hexDigest());
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package org.moddingx.packdev.target;
+
+import org.moddingx.cursewrapper.api.response.FileInfo;
+import org.moddingx.packdev.metrics.PackDevMetrics;
+import org.moddingx.packdev.platform.BaseModFile;
+import org.moddingx.packdev.platform.ModFile;
+import org.moddingx.packdev.platform.PlatformMatch;
+import org.moddingx.packdev.platform.curse.CurseFile;
+import org.moddingx.packdev.platform.modrinth.ModrinthFile;
+import org.moddingx.packdev.platform.modrinth.api.ModrinthAPI;
+import org.moddingx.packdev.platform.modrinth.api.VersionInfo;
+import org.moddingx.packdev.util.PackDevExecutor;
+import org.moddingx.packdev.util.curse.CurseUtil;
+import org.moddingx.packdev.util.hash.ComputedHash;
+import org.moddingx.packdev.util.hash.HashAlgorithm;
+
+import java.io.IOException;
+import java.net.URI;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Resolves the modpack once per build and shares the result between all targets.
+// Metadata and the hashes every target needs are resolved up front by the resolvePack task.
+// Lookups on other platforms are only done when a target asks for them, as they can fail for packs that don't build that target.
+public class PackResolver {
+
+    public static final Set<String> HASHES = Set.of("size", "sha1");
+
+    private final List<ModFile> files;
+    private final boolean offline;
+
+    // Each result is computed once, by the first thread that asks for it. Other threads wait for that result only,
+    // so independent lookups run at the same time. Failures are not memoized.
+    private final Map<Lookup, CompletableFuture<Map<ModFile, LookupResult>>> lookups;
+    // The base pack is stored with the empty set of lookups
+    private final Map<Set<Lookup>, CompletableFuture<ResolvedPack>> resolved;
+
+    public PackResolver(List<? extends ModFile> files, boolean offline) {
+        this.files = List.copyOf(files);
+        this.offline = offline;
+        this.lookups = new ConcurrentHashMap<>();
+        this.resolved = new ConcurrentHashMap<>();
+    }
+
+    public ResolvedPack resolve() throws IOException {
+        return memoize(this.resolved, Set.of(), () -> {
+            try (PackDevMetrics.Timer timer = PackDevMetrics.time("resolve")) {
+                List<ResolvedPack.Entry> entries = PackDevExecutor.map(this.files, PackResolver::resolveFile);
+                return new ResolvedPack(entries.stream().collect(Collectors.toMap(ResolvedPack.Entry::file, Function.identity(), (a, b) -> a, LinkedHashMap::new)));
+            }
+        });
+    }
+
+    // The resolved pack including the results of the given lookups.
+    public ResolvedPack resolve(Set<Lookup> lookups) throws IOException {
+        if (lookups.isEmpty()) return this.resolve();
+        Set<Lookup> key = Collections.unmodifiableSet(EnumSet.copyOf(lookups));
+        return memoize(this.resolved, key, () -> {
+            Map<ModFile, ResolvedPack.Entry> entries = new LinkedHashMap<>();
+            for (ResolvedPack.Entry entry : this.resolve().entries()) {
+                entries.put(entry.file(), entry);
+            }
+            for (Lookup lookup : key) {
+                Map<ModFile, LookupResult> results = memoize(this.lookups, lookup, () -> switch (lookup) {
+                    case CURSE -> this.resolveCurse();
+                    case MODRINTH -> this.resolveModrinth();
+                });
+                for (Map.Entry<ModFile, LookupResult> result : results.entrySet()) {
+                    ResolvedPack.Entry entry = entries.get(result.getKey());
+                    LookupResult found = result.getValue();
+                    entries.put(result.getKey(), entry.with(found.hashes(),
+                            found.curse().isPresent() ? found.curse() : entry.curse(),
+                            found.modrinth().isPresent() ? found.modrinth() : entry.modrinth()
+                    ));
+                }
+            }
+            return new ResolvedPack(entries);
+        });
+    }
+
+    private static <K, V> V memoize(Map<K, CompletableFuture<V>> map, K key, PackDevExecutor.Task<V, IOException> task) throws IOException {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = map.putIfAbsent(key, future);
+        if (existing == null) {
+            try {
+                V value = task.run();
+                future.complete(value);
+                return value;
+            } catch (IOException | RuntimeException | Error e) {
+                // Later calls try again
+                map.remove(key, future);
+                future.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return existing.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while resolving the pack", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ex) throw ex;
+            if (e.getCause() instanceof RuntimeException ex) throw ex;
+            if (e.getCause() instanceof Error ex) throw ex;
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private static ResolvedPack.Entry resolveFile(ModFile file) throws IOException {
+        Map<String, ComputedHash> hashes;
+        try {
+            hashes = file.hashes(HASHES);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("Can't resolve " + file + ": not all required hashes are supported.", e);
+        }
+        return new ResolvedPack.Entry(
+                file, file.projectSlug(), file.projectName(), file.projectOwner(), file.fileName(), file.fileSide(),
+                file.projectURL(), file.downloadURL(), Map.copyOf(hashes), Optional.empty(), Optional.empty()
+        );
+    }
+
+    private Map<ModFile, LookupResult> resolveCurse() throws IOException {
+        try {
+            // CurseForge only needs to resolve client files.
+            // Server only mods that are not on curseforge can be ignored
+            // They show up in the modlist but don't need a project / file id.
+            List<ModFile> clientFiles = this.files.stream().filter(f -> f.fileSide().client).toList();
+
+            Map<ModFile, ResolvedPack.CurseId> files = new HashMap<>();
+            List<ResolvableFile> missing = new ArrayList<>();
+            List<ModFile> failed = new ArrayList<>();
+            for (ModFile file : clientFiles) {
+                if (file instanceof CurseFile cf) {
+                    files.put(cf, new ResolvedPack.CurseId(cf.projectId, cf.fileId));
+                } else if (file instanceof BaseModFile bmf && bmf.findMatch(PlatformMatch.CURSE_PROJECT).isPresent() && bmf.findMatch(PlatformMatch.CURSE_FILE).isPresent()) {
+                    files.put(file, new ResolvedPack.CurseId(Integer.parseInt(bmf.findMatch(PlatformMatch.CURSE_PROJECT).get()), Integer.parseInt(bmf.findMatch(PlatformMatch.CURSE_FILE).get())));
+                } else {
+                    missing.add(new ResolvableFile(file.hash("fingerprint"), file));
+                }
+            }
+            if (!missing.isEmpty() && this.offline) {
+                throw new IOException("Can't build curse pack in offline mode: Files from other platforms need to be looked up on curse: " + missing.stream().map(ResolvableFile::file).map(ModFile::toString).collect(Collectors.joining(", ")));
+            }
+            if (!missing.isEmpty()) {
+                Map<Long, FileInfo> resolved;
+                try (PackDevMetrics.Timer timer = PackDevMetrics.time("curse.api")) {
+                    Set<Long> fingerprints = missing.stream()
+                            .map(ResolvableFile::hash)
+                            .map(ComputedHash::longValue)
+                            .collect(Collectors.toUnmodifiableSet());
+                    resolved = PackDevExecutor.io(CurseUtil.API_URL, () -> CurseUtil.API.matchFingerprints(fingerprints)).stream()
+                            .collect(Collectors.toUnmodifiableMap(FileInfo::fingerprint, Function.identity()));
+                }
+                for (ResolvableFile file : missing) {
+                    FileInfo info = resolved.get(file.hash().longValue());
+                    if (info != null) {
+                        if (file.file() instanceof BaseModFile bmf) {
+                            bmf.setMatch(PlatformMatch.CURSE_PROJECT, Integer.toString(info.projectId()));
+                            bmf.setMatch(PlatformMatch.CURSE_FILE, Integer.toString(info.fileId()));
+                        }
+                        files.put(file.file(), new ResolvedPack.CurseId(info.projectId(), info.fileId()));
+                    } else {
+                        failed.add(file.file());
+                    }
+                }
+            }
+            if (files.size() != clientFiles.size() || !failed.isEmpty()) {
+                throw new IOException("Can't build curse pack: Not all files found on curse platform: Missing files: " + failed.stream().map(ModFile::toString).collect(Collectors.joining(", ")));
+            }
+            Map<ModFile, LookupResult> result = new HashMap<>();
+            for (Map.Entry<ModFile, ResolvedPack.CurseId> entry : files.entrySet()) {
+                result.put(entry.getKey(), new LookupResult(Map.of(), Optional.of(entry.getValue()), Optional.empty()));
+            }
+            return result;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("Can't resolve files for curse platform: Fingerprint not supported", e);
+        }
+    }
+
+    private Map<ModFile, LookupResult> resolveModrinth() throws IOException {
+        try {
+            Map<ModFile, URI> files = new HashMap<>();
+            List<ResolvableFile> missing = new ArrayList<>();
+            List<ModFile> failed = new ArrayList<>();
+            for (ModFile file : this.files) {
+                if (file instanceof ModrinthFile mf) {
+                    files.put(mf, mf.downloadURL());
+                } else if (file instanceof BaseModFile bmf && bmf.findMatch(PlatformMatch.MODRINTH_URL).isPresent()) {
+                    files.put(file, URI.create(bmf.findMatch(PlatformMatch.MODRINTH_URL).get()));
+                } else {
+                    // sha1 is provided by other platforms as well, so looking it up usually needs no download
+                    missing.add(new ResolvableFile(file.hash("sha1"), file));
+                }
+            }
+            if (!missing.isEmpty() && this.offline) {
+                throw new IOException("Can't build modrinth pack in offline mode: Files from other platforms need to be looked up on modrinth: " + missing.stream().map(ResolvableFile::file).map(ModFile::toString).collect(Collectors.joining(", ")));
+            }
+            if (!missing.isEmpty()) {
+                Map<ComputedHash, VersionInfo> resolved = ModrinthAPI.files(HashAlgorithm.SHA1, missing.stream().map(ResolvableFile::hash).collect(Collectors.toUnmodifiableSet()));
+                for (ResolvableFile file : missing) {
+                    VersionInfo info = resolved.get(file.hash());
+                    if (info != null) {
+                        if (file.file() instanceof BaseModFile bmf) {
+                            bmf.setMatch(PlatformMatch.MODRINTH_URL, info.url().toString());
+                            if (info.hashes().containsKey("sha512")) {
+                                // Avoids downloading the file for the index
+                                bmf.addKnownHash("sha512", ComputedHash.of(info.hashes().get("sha512"), 512));
+                            }
+                        }
+                        files.put(file.file(), info.url());
+                    } else {
+                        failed.add(file.file());
+                    }
+                }
+            }
+            if (files.size() != this.files.size() || !failed.isEmpty()) {
+                throw new IOException("Can't build modrinth pack: Not all files found on modrinth platform: Missing files: " + failed.stream().map(ModFile::toString).collect(Collectors.joining(", ")));
+            }
+            List<ModFile> resolvedFiles = List.copyOf(files.keySet());
+            List<LookupResult> results = PackDevExecutor.map(resolvedFiles, file -> {
+                Map<String, ComputedHash> hashes;
+                try {
+                    hashes = file.hashes(Set.of("sha512"));
+                } catch (NoSuchAlgorithmException e) {
+                    throw new IOException("Can't build modrinth pack, not all required hashes are supported.", e);
+                }
+                return new LookupResult(hashes, Optional.empty(), Optional.of(files.get(file)));
+            });
+            Map<ModFile, LookupResult> result = new HashMap<>();
+            for (int i = 0; i < resolvedFiles.size(); i++) {
+                result.put(resolvedFiles.get(i), results.get(i));
+            }
+            return result;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("Can't resolve files for modrinth platform: sha1 not supported", e);
+        }
+    }
+
+    public enum Lookup {
+        // CurseForge project and file ids of all client files
+        CURSE,
+        // Modrinth download url and sha512 hash of all files
+        MODRINTH
+    }
+
+    private record ResolvableFile(ComputedHash hash, ModFile file) {}
+    private record LookupResult(Map<String, ComputedHash> hashes, Optional<ResolvedPack.CurseId> curse, Optional<URI> modrinth) {}
+}
@@ -0,0 +1,25 @@
+package org.moddingx.packdev.target;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.tasks.TaskAction;
+
+import javax.inject.Inject;
+import java.io.IOException;
+
+// Resolves metadata and hashes of all files before the targets run, so they only need to write their archives.
+public abstract class ResolvePackTask extends DefaultTask {
+
+    private final PackResolver resolver;
+
+    @Inject
+    public ResolvePackTask(PackResolver resolver) {
+        this.resolver = resolver;
+        // The resolved pack only lives in memory
+        this.getOutputs().upToDateWhen(t -> false);
+    }
+
+    @TaskAction
+    public void resolve() throws IOException {
+        this.resolver.resolve();
+    }
+}
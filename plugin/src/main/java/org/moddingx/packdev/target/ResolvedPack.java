@@ -0,0 +1,59 @@
+package org.moddingx.packdev.target;
+
+import org.moddingx.launcherlib.util.Side;
+import org.moddingx.packdev.platform.ModFile;
+import org.moddingx.packdev.util.hash.ComputedHash;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.*;
+
+// Immutable model of the modpack, with everything the targets need to write their archives.
+// Created by the PackResolver, so the platform apis are only queried once per build.
+public class ResolvedPack {
+
+    private final Map<ModFile, Entry> entries;
+
+    ResolvedPack(Map<ModFile, Entry> entries) {
+        this.entries = Collections.unmodifiableMap(new LinkedHashMap<>(entries));
+    }
+
+    public Collection<Entry> entries() {
+        return this.entries.values();
+    }
+
+    public Entry get(ModFile file) {
+        Entry entry = this.entries.get(file);
+        if (entry == null) throw new IllegalArgumentException("File is not part of the resolved pack: " + file);
+        return entry;
+    }
+
+    public record Entry(
+            ModFile file,
+            String slug,
+            String name,
+            Optional<ModFile.Owner> owner,
+            String fileName,
+            Side side,
+            URI projectURL,
+            URI downloadURL,
+            Map<String, ComputedHash> hashes,
+            Optional<CurseId> curse,
+            Optional<URI> modrinth
+    ) {
+
+        public ComputedHash hash(String algorithm) throws IOException {
+            ComputedHash hash = this.hashes.get(algorithm);
+            if (hash == null) throw new IOException("Hash " + algorithm + " was not resolved for file: " + this.file);
+            return hash;
+        }
+
+        Entry with(Map<String, ComputedHash> hashes, Optional<CurseId> curse, Optional<URI> modrinth) {
+            Map<String, ComputedHash> allHashes = new HashMap<>(this.hashes);
+            allHashes.putAll(hashes);
+            return new Entry(this.file, this.slug, this.name, this.owner, this.fileName, this.side, this.projectURL, this.downloadURL, Map.copyOf(allHashes), curse, modrinth);
+        }
+    }
+
+    public record CurseId(int projectId, int fileId) {}
+}
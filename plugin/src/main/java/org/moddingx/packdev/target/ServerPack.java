@@ -21,7 +21,7 @@ import java.util.regex.Pattern;
 public class ServerPack<T extends ModFile> extends BaseTargetTask<T> {
 
     private static final Pattern DOCKERFILE_TEMPLATE_PATTERN = Pattern.compile("\\$\\{(\\w+)(#?)\\}");
-    private static final Map<String, String> INSTALLER_VERSIONS = Map.of(
+    protected static final Map<String, String> INSTALLER_VERSIONS = Map.of(
             LoaderConstants.FORGE, "", // Forge has no separate installer
             LoaderConstants.FABRIC, "1.0.0",
             LoaderConstants.QUILT, "0.9.1",
@@ -33,11 +33,14 @@ public class ServerPack<T extends ModFile> extends BaseTargetTask<T> {
         super(platform, settings, files);
     }
 
+    @Override
+    public boolean usesOverrides(Side side) {
+        return side != Side.CLIENT;
+    }
+
     @Override
     protected void generate(Path target) throws IOException {
-        try (FileSystem fs = FileSystems.newFileSystem(URI.create("jar:" + target.toUri()), Map.of(
-                "create", String.valueOf(!Files.exists(target))
-        ))) {
+        try (FileSystem fs = FileSystems.newFileSystem(URI.create("jar:" + target.toUri()), this.archiveOptions(target))) {
             this.paths.copyAllDataTo(fs.getPath("/"), Side.SERVER);
 
             try (InputStream installScript = PackDevPlugin.class.getResourceAsStream("/" + PackDevPlugin.class.getPackage().getName().replace('.', '/') + "/install_server.py")) {
@@ -57,7 +60,7 @@ public class ServerPack<T extends ModFile> extends BaseTargetTask<T> {
                 //
             }
 
-            try (InputStream dockerFile = PackDevPlugin.class.getResourceAsStream("/" + PackDevPlugin.class.getPackage().getName().replace('.', '/') + "/Dockerfile")) {
+            try (InputStream dockerFile = PackDevPlugin.class.getResourceAsStream("/" + PackDevPlugin.class.getPackage().getName().replace('.', '/') + "/" + this.dockerfileTemplate())) {
                 if (dockerFile == null) {
                     throw new IllegalStateException("Can't build server pack: Dockerfile not found.");
                 }
@@ -86,18 +89,49 @@ public class ServerPack<T extends ModFile> extends BaseTargetTask<T> {
             }
 
             this.generateServerInfo(fs.getPath("server.txt"));
+            this.generateBundledFiles(fs);
         }
     }
+    
+    protected Map<String, ?> archiveOptions(Path target) {
+        return Map.of("create", String.valueOf(!Files.exists(target)));
+    }
+    
+    protected String dockerfileTemplate() {
+        return "Dockerfile";
+    }
+    
+    // Additional files to put into the archive, after overrides, install script and server.txt have been written.
+    protected void generateBundledFiles(FileSystem fs) throws IOException {
+        //
+    }
+
+    // The installer url is only defined here. install.py reads it from server.txt.
+    protected URI installerURL() {
+        String mc = this.settings.minecraft();
+        String loader = this.settings.loaderVersion();
+        String installer = INSTALLER_VERSIONS.getOrDefault(this.settings.loader(), null);
+        return switch (this.settings.loader()) {
+            case LoaderConstants.FORGE -> URI.create("https://maven.minecraftforge.net/net/minecraftforge/forge/" + mc + "-" + loader + "/forge-" + mc + "-" + loader + "-installer.jar");
+            case LoaderConstants.NEOFORGE -> URI.create("https://maven.neoforged.net/releases/net/neoforged/neoforge/" + loader + "/neoforge-" + loader + "-installer.jar");
+            case LoaderConstants.FABRIC -> URI.create("https://maven.fabricmc.net/net/fabricmc/fabric-installer/" + installer + "/fabric-installer-" + installer + ".jar");
+            case LoaderConstants.QUILT -> URI.create("https://maven.quiltmc.org/repository/release/org/quiltmc/quilt-installer/" + installer + "/quilt-installer-" + installer + ".jar");
+            default -> throw new IllegalStateException("The server pack target does not support loader " + this.settings.loader());
+        };
+    }
 
     private void generateServerInfo(Path target) throws IOException {
         String installerVersion = INSTALLER_VERSIONS.getOrDefault(this.settings.loader(), null);
         if (installerVersion == null) throw new IllegalStateException("The server pack target does not support loader " + this.settings.loader());
         Writer writer = Files.newBufferedWriter(target, StandardOpenOption.CREATE_NEW);
-        writer.write(this.settings.loader() + "/" + installerVersion + "\n");
+        writer.write(this.settings.loader() + "/" + installerVersion + "/" + this.installerURL() + "\n");
         writer.write(this.settings.minecraft() + "/" + this.settings.loaderVersion() + "\n");
+        ResolvedPack pack = this.resolver.resolve();
         for (ModFile file : this.files.stream().sorted(this.platform.internalOrder()).toList()) {
-            if (file.fileSide().server) {
-                writer.write(file.fileName().replace("/", "") + "/" + file.downloadURL().normalize() + "\n");
+            ResolvedPack.Entry entry = pack.get(file);
+            if (entry.side().server) {
+                // The installer uses size and sha1 to verify downloads and reuse existing files.
+                writer.write(entry.fileName().replace("/", "") + "/" + entry.hash("size").longValue() + "/" + entry.hash("sha1").hexDigest() + "/" + entry.downloadURL().normalize() + "\n");
             }
         }
         writer.close();
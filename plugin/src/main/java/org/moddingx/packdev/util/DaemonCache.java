@@ -0,0 +1,48 @@
+package org.moddingx.packdev.util;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.moddingx.packdev.metrics.PackDevMetrics;
+
+import java.time.Duration;
+
+// Memory-bounded cache that lives as long as the gradle daemon, so back-to-back builds skip repeated api calls.
+// Values are softly referenced and can be reclaimed under memory pressure at any time.
+public class DaemonCache<K, V> {
+
+    private final String name;
+    private final Cache<K, V> cache;
+
+    private DaemonCache(String name, Cache<K, V> cache) {
+        this.name = name;
+        this.cache = cache;
+    }
+
+    // For data that never changes, such as a specific file or version
+    public static <K, V> DaemonCache<K, V> immutable(String name, long maximumSize) {
+        return new DaemonCache<>(name, CacheBuilder.newBuilder().softValues().maximumSize(maximumSize).build());
+    }
+
+    // For data that may change on the platform, such as project names
+    public static <K, V> DaemonCache<K, V> expiring(String name, long maximumSize, Duration expiry) {
+        return new DaemonCache<>(name, CacheBuilder.newBuilder().softValues().maximumSize(maximumSize).expireAfterWrite(expiry).build());
+    }
+
+    // Concurrent misses for the same key may both call the loader. The last result wins.
+    public <E extends Exception> V get(K key, Loader<V, E> loader) throws E {
+        V value = this.cache.getIfPresent(key);
+        if (value != null) {
+            PackDevMetrics.count("daemon." + this.name + ".hit");
+            return value;
+        }
+        PackDevMetrics.count("daemon." + this.name + ".miss");
+        value = loader.load();
+        this.cache.put(key, value);
+        return value;
+    }
+
+    @FunctionalInterface
+    public interface Loader<V, E extends Exception> {
+        V load() throws E;
+    }
+}
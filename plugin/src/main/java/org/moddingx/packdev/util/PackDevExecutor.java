@@ -0,0 +1,227 @@
+package org.moddingx.packdev.util;
+
+import jakarta.annotation.Nullable;
+
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Shared executors for all parallel work in PackDev. They live as long as the gradle daemon.
+// Blocking I/O runs on virtual threads (or a limited number of platform threads if disabled) and network access is limited per host,
+// so large packs don't get throttled by the platforms. CPU bound work (hashing, inflating, ...) runs on a fixed size pool.
+// Configured through the concurrency block of the modpack extension. With multiple projects, the last configuration wins.
+public class PackDevExecutor {
+
+    private static final Map<String, HostPermits> hostPermits = new ConcurrentHashMap<>();
+    private static final ThreadLocal<Boolean> onCpuPool = ThreadLocal.withInitial(() -> false);
+
+    private static Settings settings = Settings.DEFAULT;
+    private static ExecutorService ioExecutor = createIoExecutor(settings);
+    private static ExecutorService cpuExecutor = createCpuExecutor(settings);
+
+    public static synchronized void configure(Settings newSettings) {
+        if (settings.equals(newSettings)) return;
+        Settings old = settings;
+        settings = newSettings;
+        if (old.virtualThreads() != newSettings.virtualThreads()) {
+            ioExecutor.shutdown();
+            ioExecutor = createIoExecutor(newSettings);
+        }
+        if (old.cpuThreads() != newSettings.cpuThreads()) {
+            cpuExecutor.shutdown();
+            cpuExecutor = createCpuExecutor(newSettings);
+        }
+        // Requests already running still count towards the new limit
+        if (old.perHost() != newSettings.perHost()) {
+            for (HostPermits permits : hostPermits.values()) {
+                permits.resize(newSettings.perHost() - old.perHost());
+            }
+        }
+    }
+
+    public static synchronized Settings settings() {
+        return settings;
+    }
+
+    // Runs a blocking network request on the calling thread, while holding a permit for the host.
+    public static <T, E extends Exception> T io(@Nullable URI uri, Task<T, E> task) throws E {
+        String host = uri == null || uri.getHost() == null ? "" : uri.getHost().toLowerCase(Locale.ROOT);
+        Semaphore permits = hostPermits.get(host);
+        if (permits == null) permits = createPermits(host);
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for " + host);
+        }
+        try {
+            return task.run();
+        } finally {
+            permits.release();
+        }
+    }
+
+    // Synchronized with configure, so no semaphore is created with an outdated limit
+    private static synchronized HostPermits createPermits(String host) {
+        return hostPermits.computeIfAbsent(host, h -> new HostPermits(settings.perHost()));
+    }
+
+    // Applies the function to all elements in parallel on the I/O executor. The results keep the order of the elements.
+    public static <T, R, E extends Exception> List<R> map(Collection<T> elements, Function<T, R, E> function) throws E {
+        ExecutorService executor;
+        int parallelism;
+        synchronized (PackDevExecutor.class) {
+            executor = ioExecutor;
+            parallelism = settings.virtualThreads() ? Integer.MAX_VALUE : settings.ioThreads();
+        }
+        return invokeAll(executor, parallelism, elements, function);
+    }
+
+    public static <T, E extends Exception> void forEach(Collection<T> elements, Consumer<T, E> consumer) throws E {
+        map(elements, element -> {
+            consumer.accept(element);
+            return null;
+        });
+    }
+
+    // Applies the function to all elements in parallel on the CPU pool. The results keep the order of the elements.
+    // When called from the CPU pool, runs on the calling thread, so nested calls can't starve the pool.
+    public static <T, R, E extends Exception> List<R> mapCpu(Collection<T> elements, Function<T, R, E> function) throws E {
+        if (onCpuPool.get()) {
+            List<R> results = new ArrayList<>(elements.size());
+            for (T element : elements) results.add(function.apply(element));
+            return results;
+        }
+        ExecutorService executor;
+        int parallelism;
+        synchronized (PackDevExecutor.class) {
+            executor = cpuExecutor;
+            parallelism = settings.cpuThreads();
+        }
+        return invokeAll(executor, parallelism, elements, function);
+    }
+
+    // Runs CPU bound work on the CPU pool and waits for the result.
+    public static <T, E extends Exception> T cpu(Task<T, E> task) throws E {
+        return mapCpu(List.of(task), Task::run).get(0);
+    }
+
+    // Submits at most parallelism workers, that take the elements one by one. Large collections (for example thousands
+    // of override files) never put one task per element on the executor.
+    private static <T, R, E extends Exception> List<R> invokeAll(ExecutorService executor, int parallelism, Collection<T> elements, Function<T, R, E> function) throws E {
+        if (elements.isEmpty()) return List.of();
+        List<T> input = new ArrayList<>(elements);
+        Object[] output = new Object[input.size()];
+        AtomicInteger next = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < Math.min(parallelism, input.size()); i++) {
+                futures.add(executor.submit(() -> {
+                    int idx;
+                    while ((idx = next.getAndIncrement()) < input.size()) {
+                        try {
+                            output[idx] = function.apply(input.get(idx));
+                        } catch (Exception | Error e) {
+                            // Other workers stop after their current element
+                            next.set(input.size());
+                            throw e;
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            List<R> results = new ArrayList<>(input.size());
+            for (Object result : output) {
+                @SuppressWarnings("unchecked")
+                R value = (R) result;
+                results.add(value);
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted");
+        } catch (ExecutionException e) {
+            return rethrow(e.getCause());
+        } finally {
+            for (Future<?> future : futures) future.cancel(true);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <R, E extends Exception> R rethrow(Throwable t) throws E {
+        if (t instanceof RuntimeException e) throw e;
+        if (t instanceof Error e) throw e;
+        throw (E) t;
+    }
+
+    private static ExecutorService createIoExecutor(Settings settings) {
+        if (settings.virtualThreads()) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("packdev-io-", 0).factory());
+        } else {
+            // map and forEach submit at most ioThreads workers per call, so the pool only grows with the number of concurrent calls
+            return Executors.newCachedThreadPool(daemonThreads("packdev-io-", () -> {}));
+        }
+    }
+
+    private static ExecutorService createCpuExecutor(Settings settings) {
+        return Executors.newFixedThreadPool(settings.cpuThreads(), daemonThreads("packdev-cpu-", () -> onCpuPool.set(true)));
+    }
+
+    private static ThreadFactory daemonThreads(String prefix, Runnable init) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(() -> {
+                init.run();
+                runnable.run();
+            }, prefix + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static class HostPermits extends Semaphore {
+
+        private HostPermits(int permits) {
+            super(permits, true);
+        }
+
+        // A negative change takes effect as running requests release their permits
+        private void resize(int change) {
+            if (change > 0) {
+                this.release(change);
+            } else if (change < 0) {
+                this.reducePermits(-change);
+            }
+        }
+    }
+
+    public record Settings(int perHost, int cpuThreads, int ioThreads, boolean virtualThreads) {
+
+        public static final Settings DEFAULT = new Settings(8, Math.max(1, Runtime.getRuntime().availableProcessors()), 32, true);
+
+        public Settings {
+            if (perHost <= 0) throw new IllegalArgumentException("Concurrent requests per host must be positive: " + perHost);
+            if (cpuThreads <= 0) throw new IllegalArgumentException("CPU threads must be positive: " + cpuThreads);
+            if (ioThreads <= 0) throw new IllegalArgumentException("I/O threads must be positive: " + ioThreads);
+        }
+    }
+
+    @FunctionalInterface
+    public interface Task<T, E extends Exception> {
+        T run() throws E;
+    }
+
+    @FunctionalInterface
+    public interface Function<T, R, E extends Exception> {
+        R apply(T element) throws E;
+    }
+
+    @FunctionalInterface
+    public interface Consumer<T, E extends Exception> {
+        void accept(T element) throws E;
+    }
+}
@@ -1,15 +1,81 @@
 package org.moddingx.packdev.util.curse;
 
 import org.moddingx.cursewrapper.api.CurseWrapper;
+import org.moddingx.cursewrapper.api.response.FileInfo;
+import org.moddingx.cursewrapper.api.response.ModLoader;
+import org.moddingx.cursewrapper.api.response.ProjectInfo;
+import org.moddingx.packdev.metrics.PackDevMetrics;
+import org.moddingx.packdev.util.DaemonCache;
+import org.moddingx.packdev.util.LoaderConstants;
+import org.moddingx.packdev.util.PackDevExecutor;
 
+import java.io.IOException;
 import java.net.URI;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 public class CurseUtil {
 
-    public static final CurseWrapper API = new CurseWrapper(URI.create("https://curse.moddingx.org/"));
-    public static final URI CURSE_MAVEN = URI.create("https://www.cursemaven.com");
+    // Both can be pointed to a local stand-in through system properties, for example for hermetic builds.
+    public static final String API_PROPERTY = "packdev.api.curse";
+    public static final String CURSE_MAVEN_PROPERTY = "packdev.api.cursemaven";
+
+    public static final URI API_URL = URI.create(System.getProperty(API_PROPERTY, "https://curse.moddingx.org/"));
+    public static final CurseWrapper API = new CurseWrapper(API_URL);
+    public static final URI CURSE_MAVEN = URI.create(System.getProperty(CURSE_MAVEN_PROPERTY, "https://www.cursemaven.com"));
+
+    private static final DaemonCache<Integer, String> slugs = DaemonCache.expiring("curse.slug", 4096, Duration.ofHours(1));
+    private static final DaemonCache<Integer, ProjectInfo> projects = DaemonCache.expiring("curse.project", 4096, Duration.ofHours(1));
+    private static final DaemonCache<String, FileInfo> files = DaemonCache.immutable("curse.file", 16384);
+
+    private static final Map<String, ModLoader> LOADERS = Map.of(
+            LoaderConstants.FORGE, ModLoader.FORGE,
+            LoaderConstants.FABRIC, ModLoader.FABRIC,
+            LoaderConstants.QUILT, ModLoader.QUILT,
+            LoaderConstants.NEOFORGE, ModLoader.NEOFORGE
+    );
 
     public static URI curseMaven(String endpoint) {
         return CURSE_MAVEN.resolve(endpoint.startsWith("/") ? endpoint : "/" + endpoint);
     }
+
+    public static String getSlug(int projectId) throws IOException {
+        return slugs.get(projectId, () -> {
+            try (PackDevMetrics.Timer timer = PackDevMetrics.time("curse.api")) {
+                return PackDevExecutor.io(API_URL, () -> API.getSlug(projectId));
+            }
+        });
+    }
+
+    public static ProjectInfo getProject(int projectId) throws IOException {
+        return projects.get(projectId, () -> {
+            try (PackDevMetrics.Timer timer = PackDevMetrics.time("curse.api")) {
+                return PackDevExecutor.io(API_URL, () -> API.getProject(projectId));
+            }
+        });
+    }
+
+    // Latest file of a project for the given loader and minecraft version. Always queries the api, as the files change.
+    public static Optional<FileInfo> getLatestFile(int projectId, String loader, String minecraft) throws IOException {
+        ModLoader modLoader = LOADERS.get(loader);
+        if (modLoader == null) throw new IllegalStateException("Loader not supported by CurseForge: " + loader);
+        List<FileInfo> projectFiles;
+        try (PackDevMetrics.Timer timer = PackDevMetrics.time("curse.api")) {
+            projectFiles = PackDevExecutor.io(API_URL, () -> API.getFiles(projectId));
+        }
+        return projectFiles.stream()
+                .filter(info -> info.loaders().contains(modLoader) && info.gameVersions().contains(minecraft))
+                .max(Comparator.comparing(FileInfo::fileDate).thenComparing(FileInfo::fileId));
+    }
+
+    public static FileInfo getFile(int projectId, int fileId) throws IOException {
+        return files.get(projectId + "/" + fileId, () -> {
+            try (PackDevMetrics.Timer timer = PackDevMetrics.time("curse.api")) {
+                return PackDevExecutor.io(API_URL, () -> API.getFile(projectId, fileId));
+            }
+        });
+    }
 }
@@ -0,0 +1,92 @@
+package org.moddingx.packdev.util.file;
+
+import org.moddingx.packdev.metrics.PackDevMetrics;
+import org.moddingx.packdev.util.PackDevExecutor;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.stream.Stream;
+
+// Merged view of several directory trees. Files from later trees replace files from earlier ones.
+// Relative paths always use '/' as separator, so they can be resolved against paths of any FileSystem.
+public class FileOverlay {
+
+    private final SortedSet<String> directories;
+    private final SortedMap<String, Path> files;
+
+    private FileOverlay(SortedSet<String> directories, SortedMap<String, Path> files) {
+        this.directories = Collections.unmodifiableSortedSet(directories);
+        this.files = Collections.unmodifiableSortedMap(files);
+    }
+
+    // Non-existent source directories are skipped.
+    public static FileOverlay of(List<Path> sources) throws IOException {
+        SortedSet<String> directories = new TreeSet<>();
+        SortedMap<String, Path> files = new TreeMap<>();
+        for (Path source : sources) {
+            if (!Files.isDirectory(source)) continue;
+            try (Stream<Path> paths = Files.walk(source)) {
+                for (Path path : (Iterable<Path>) paths::iterator) {
+                    if (path.equals(source)) continue;
+                    String relative = relativize(source, path);
+                    if (Files.isDirectory(path)) {
+                        directories.add(relative);
+                        files.remove(relative);
+                    } else {
+                        // A file replaces a directory with the same name including all of its contents
+                        files.subMap(relative + "/", relative + "0").clear();
+                        directories.subSet(relative + "/", relative + "0").clear();
+                        directories.remove(relative);
+                        files.put(relative, path);
+                    }
+                }
+            }
+        }
+        return new FileOverlay(directories, files);
+    }
+
+    public SortedSet<String> directories() {
+        return this.directories;
+    }
+
+    public SortedMap<String, Path> files() {
+        return this.files;
+    }
+
+    public boolean isEmpty() {
+        return this.directories.isEmpty() && this.files.isEmpty();
+    }
+
+    // Each target file is written exactly once. Directories are created up front, so the file copies can run in parallel.
+    public void copyTo(Path target) throws IOException {
+        if (!Files.isDirectory(target)) {
+            Files.createDirectories(target);
+        }
+        for (String dir : this.directories) {
+            Files.createDirectories(resolve(target, dir));
+        }
+        try (PackDevMetrics.Timer timer = PackDevMetrics.time("overrides.copy")) {
+            PackDevMetrics.count("overrides.files", this.files.size());
+            PackDevExecutor.forEach(this.files.entrySet(), entry -> Files.copy(entry.getValue(), resolve(target, entry.getKey()), StandardCopyOption.REPLACE_EXISTING));
+        }
+    }
+
+    public static String relativize(Path base, Path path) {
+        List<String> parts = new ArrayList<>();
+        for (Path part : base.relativize(path)) {
+            parts.add(part.toString());
+        }
+        return String.join("/", parts);
+    }
+
+    public static Path resolve(Path base, String relative) {
+        Path path = base;
+        for (String part : relative.split("/")) {
+            if (!part.isEmpty()) path = path.resolve(part);
+        }
+        return path;
+    }
+}
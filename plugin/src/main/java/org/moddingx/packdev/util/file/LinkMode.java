@@ -0,0 +1,102 @@
+package org.moddingx.packdev.util.file;
+
+import org.gradle.api.Project;
+
+import java.io.IOException;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// How PackDev places immutable files (mostly mod jars) from a cache on disk.
+// Every mode falls back to a plain copy if the file can't be materialised that way, for example across file systems.
+public enum LinkMode {
+
+    // Hard link to the cached file. Fast and uses no extra space, but changes to the target also modify the cache.
+    // Only used when set explicitly through packdev.linkMode.
+    HARDLINK("hardlink"),
+    // Copy-on-write clone on file systems that support it (btrfs and XFS on Linux, APFS on macOS). This is the default.
+    // Support is probed once per file system, after the first failure all files on it are copied directly.
+    REFLINK("reflink"),
+    COPY("copy");
+
+    public static final String PROPERTY = "packdev.linkMode";
+    
+    private static final Map<FileStore, Boolean> reflinkSupport = new ConcurrentHashMap<>();
+
+    public final String id;
+
+    LinkMode(String id) {
+        this.id = id;
+    }
+
+    public static LinkMode get(Project project) {
+        Object value = project.getProperties().get(PROPERTY);
+        if (value == null) return REFLINK;
+        for (LinkMode mode : values()) {
+            if (mode.id.equals(value.toString().toLowerCase(Locale.ROOT))) return mode;
+        }
+        throw new IllegalArgumentException("Invalid value for " + PROPERTY + ": " + value + ". Expected one of hardlink, reflink or copy.");
+    }
+
+    public void materialize(Path source, Path target) throws IOException {
+        Files.deleteIfExists(target);
+        boolean success = switch (this) {
+            case HARDLINK -> hardlink(source, target);
+            case REFLINK -> reflink(source, target);
+            case COPY -> false;
+        };
+        if (!success) {
+            Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+        }
+    }
+
+    private static boolean hardlink(Path source, Path target) {
+        try {
+            Files.createLink(target, source);
+            return true;
+        } catch (UnsupportedOperationException | IOException e) {
+            return false;
+        }
+    }
+
+    // Java has no API for reflinks, so use cp where available. That is cp from coreutils on Linux and clonefile through cp -c on macOS.
+    private static boolean reflink(Path source, Path target) {
+        if (source.getFileSystem() != target.getFileSystem() || !"/".equals(source.getFileSystem().getSeparator())) return false;
+        FileStore store;
+        try {
+            store = Files.getFileStore(target.toAbsolutePath().getParent());
+            // Clones never work across file systems
+            if (!store.equals(Files.getFileStore(source))) return false;
+        } catch (IOException e) {
+            return false;
+        }
+        if (Boolean.FALSE.equals(reflinkSupport.get(store))) return false;
+        boolean mac = System.getProperty("os.name", "").toLowerCase(Locale.ROOT).startsWith("mac");
+        List<String> command = mac
+                ? List.of("cp", "-c", "-p", "--", source.toAbsolutePath().toString(), target.toAbsolutePath().toString())
+                : List.of("cp", "--reflink=always", "--preserve=timestamps", "--", source.toAbsolutePath().toString(), target.toAbsolutePath().toString());
+        boolean success = false;
+        try {
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+            if (process.waitFor(30, TimeUnit.SECONDS) && process.exitValue() == 0) {
+                success = true;
+            } else {
+                process.destroyForcibly();
+                Files.deleteIfExists(target);
+            }
+        } catch (IOException e) {
+            // cp is not available
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        reflinkSupport.putIfAbsent(store, success);
+        return success;
+    }
+}
@@ -3,7 +3,9 @@ package org.moddingx.packdev.util.multimc;
 import com.google.common.collect.ImmutableList;
 import com.google.gson.*;
 import jakarta.annotation.Nullable;
+import org.moddingx.packdev.metrics.PackDevMetrics;
 import org.moddingx.packdev.util.LoaderConstants;
+import org.moddingx.packdev.util.PackDevExecutor;
 
 import java.io.IOException;
 import java.io.InputStreamReader;
@@ -11,12 +13,18 @@ import java.io.Reader;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
 import java.util.function.Function;
 
 public class MultiMcAPI {
     
-    public static final String ENDPOINT = "https://meta.multimc.org/v1";
+    // Can be pointed to a local stand-in through a system property, for example for hermetic builds.
+    public static final String ENDPOINT_PROPERTY = "packdev.api.multimc";
+    public static final String ENDPOINT = stripTrailingSlash(System.getProperty(ENDPOINT_PROPERTY, "https://meta.multimc.org/v1"));
     
     public static final String MC_UID = "net.minecraft";
     public static final Map<String, LoaderData> LOADER_UIDS = Map.of(
@@ -34,6 +42,24 @@ public class MultiMcAPI {
         GSON = builder.create();
     }
 
+    // Component metadata is pinned to a version, so it is cached on disk once fetched
+    @Nullable private static Path cachePath = null;
+    private static boolean offline = false;
+    
+    public static synchronized void useCache(@Nullable Path path, boolean offline) {
+        MultiMcAPI.cachePath = path;
+        MultiMcAPI.offline = offline;
+    }
+    
+    public static boolean isLocal() {
+        String host = URI.create(ENDPOINT).getHost();
+        return "localhost".equals(host) || "127.0.0.1".equals(host) || "[::1]".equals(host);
+    }
+    
+    private static String stripTrailingSlash(String endpoint) {
+        return endpoint.endsWith("/") ? endpoint.substring(0, endpoint.length() - 1) : endpoint;
+    }
+
     public static JsonObject buildLoaderPack(String loader, String minecraftVersion, String loaderVersion) throws IOException {
         LoaderData data = LOADER_UIDS.getOrDefault(loader, null);
         if (data == null) throw new IllegalArgumentException("Loader not supported in MultiMC: " + loader);
@@ -122,15 +148,48 @@ public class MultiMcAPI {
     }
 
     private static JsonObject fetch(String endpoint) throws IOException {
-        try {
-            URL url = new URI(ENDPOINT + endpoint).toURL();
-            Reader reader = new InputStreamReader(url.openStream());
-            JsonObject json = GSON.fromJson(reader, JsonObject.class);
-            reader.close();
-            return json;
+        Path cached;
+        boolean offline;
+        synchronized (MultiMcAPI.class) {
+            cached = cachePath == null ? null : cachePath.resolve(endpoint.substring(1)).normalize();
+            offline = MultiMcAPI.offline;
+        }
+        if (cached != null && cached.startsWith(cachePath) && Files.isRegularFile(cached)) {
+            PackDevMetrics.count("multimc.cache.hit");
+            try (Reader reader = Files.newBufferedReader(cached, StandardCharsets.UTF_8)) {
+                return GSON.fromJson(reader, JsonObject.class);
+            } catch (JsonParseException e) {
+                System.err.println("Warning: Invalid cached MultiMC metadata " + endpoint + ", fetching it again.");
+            }
+        }
+        if (offline && !isLocal()) {
+            throw new IOException("PackDev is offline and the MultiMC metadata " + endpoint + " is not cached. Set the " + ENDPOINT_PROPERTY + " system property to use a local stand-in.");
+        }
+        JsonObject json;
+        try (PackDevMetrics.Timer timer = PackDevMetrics.time("multimc.api")) {
+            URI uri = new URI(ENDPOINT + endpoint);
+            json = PackDevExecutor.io(uri, () -> {
+                URL url = uri.toURL();
+                Reader reader = new InputStreamReader(url.openStream());
+                JsonObject result = GSON.fromJson(reader, JsonObject.class);
+                reader.close();
+                return result;
+            });
         } catch (URISyntaxException e) {
             throw new IOException(e);
         }
+        if (cached != null && cached.startsWith(cachePath) && !isLocal()) {
+            // Write to a temporary file first, concurrent builds may read the cache
+            Files.createDirectories(cached.getParent());
+            Path temp = Files.createTempFile(cached.getParent(), cached.getFileName().toString(), ".part");
+            try {
+                Files.writeString(temp, GSON.toJson(json) + "\n", StandardCharsets.UTF_8);
+                Files.move(temp, cached, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+        return json;
     }
 
     public record LoaderData(@Nullable String loaderUid, @Nullable String minecraftUid) {}
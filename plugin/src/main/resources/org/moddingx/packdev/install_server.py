@@ -3,53 +3,109 @@
 # PackDev server install script
 # https://github.com/ModdingX/PackDev
 
+import argparse
+import hashlib
 import json
 import os
+import shutil
 import subprocess
-from typing import List
+import time
+from concurrent.futures import ThreadPoolExecutor, as_completed
+from typing import List, NamedTuple, Optional
 from urllib.request import Request, urlopen
 
+DEFAULT_WORKERS = 8
+DOWNLOAD_ATTEMPTS = 10
+DOWNLOAD_TIMEOUT = 60
 
-def setup_server():
+# Layered container builds install the loader before the override files are copied.
+# The files the loader installation generates are kept here, so the finish phase can restore them.
+GENERATED_DIR = '.packdev'
+GENERATED_FILES = ['run.sh', 'run.bat', 'user_jvm_args.txt']
+GENERATED_JVM_ARGS = 'jvm_args.txt'
+
+
+class Mod(NamedTuple):
+    file_name: str
+    size: int
+    sha1: str
+    url: str
+
+
+def setup_server(phase: str, workers: int, cache_dir: Optional[str]):
     mods = []
     with open('server.txt') as file:
         for entry in file.read().split('\n'):
             if not entry.strip() == '' and '/' in entry:
                 mods.append([entry[:entry.index('/')], entry[entry.index('/') + 1:]])
 
+    # The first line has the format loader/installerVersion/installerUrl
+    loader: str = mods[0][0]
+    _, _, installer_url = mods[0][1].partition('/')
+    mcv: str = mods[1][0]
+    mlv: str = mods[1][1]
+
+    if phase == 'all' or phase == 'loader':
+        jvm_args = install_loader(loader, installer_url, mcv, mlv)
+        if phase == 'loader':
+            save_generated_files(jvm_args)
+    if phase == 'all' or phase == 'mods':
+        # Mod lines have the format fileName/size/sha1/url
+        download_mods([parse_mod(mod[0], mod[1]) for mod in mods[2:]], workers, cache_dir)
+    if phase == 'finish':
+        restore_generated_files()
+
+
+# Returns the arguments the installation added to user_jvm_args.txt
+def install_loader(loader: str, installer_url: str, mcv: str, mlv: str) -> List[str]:
     try:
         os.remove('run.sh')
         os.remove('run.bat')
     except FileNotFoundError:
         pass
 
-    loader: str = mods[0][0]
-    insv: str = mods[0][1]
-    mcv: str = mods[1][0]
-    mlv: str = mods[1][1]
-    
     if loader == 'forge':
-        install_forge(mcv, mlv)
+        return install_forge(installer_url, mcv, mlv)
     elif loader == 'neoforge':
-        install_neoforge(mlv)
+        install_neoforge(installer_url)
     elif loader == 'fabric':
-        install_fabric(insv, mcv, mlv)
+        install_fabric(installer_url, mcv, mlv)
     elif loader == 'quilt':
-        install_quilt(insv, mcv, mlv)
+        install_quilt(installer_url, mcv, mlv)
     else:
         raise EnvironmentError(f'Loader {loader} is not supported')
-
-    print('Downloading Mods')
-    if not os.path.isdir('mods'):
-        os.makedirs('mods')
-    for mod in mods[2:]:
-        download_mod(mod[1], mod[0])
-
-
-def install_forge(mcv: str, mlv: str):
+    return []
+
+
+def save_generated_files(jvm_args: List[str]):
+    os.makedirs(GENERATED_DIR, exist_ok=True)
+    for file_name in GENERATED_FILES:
+        if os.path.isfile(file_name):
+            shutil.copyfile(file_name, os.path.join(GENERATED_DIR, file_name))
+    with open(os.path.join(GENERATED_DIR, GENERATED_JVM_ARGS), mode='w') as file:
+        file.write(''.join(arg + '\n' for arg in jvm_args))
+
+
+def restore_generated_files():
+    # Override files never replace the launch scripts generated by the loader installation.
+    for file_name in ['run.sh', 'run.bat']:
+        if os.path.isfile(os.path.join(GENERATED_DIR, file_name)):
+            shutil.copyfile(os.path.join(GENERATED_DIR, file_name), file_name)
+    if not os.path.isfile('user_jvm_args.txt') and os.path.isfile(os.path.join(GENERATED_DIR, 'user_jvm_args.txt')):
+        shutil.copyfile(os.path.join(GENERATED_DIR, 'user_jvm_args.txt'), 'user_jvm_args.txt')
+    elif os.path.isfile(os.path.join(GENERATED_DIR, GENERATED_JVM_ARGS)):
+        # Custom user_jvm_args.txt from the overrides, the arguments added during installation are still required.
+        with open('user_jvm_args.txt') as file:
+            existing = [line.strip() for line in file.read().split('\n')]
+        with open(os.path.join(GENERATED_DIR, GENERATED_JVM_ARGS)) as file:
+            missing = [line.strip() for line in file.read().split('\n') if line.strip() != '' and line.strip() not in existing]
+        add_jvm_args(missing)
+
+
+def install_forge(installer_url: str, mcv: str, mlv: str) -> List[str]:
     print('Installing Forge')
     run_installer(
-        f'https://maven.minecraftforge.net/net/minecraftforge/forge/{mcv}-{mlv}/forge-{mcv}-{mlv}-installer.jar',
+        installer_url,
         ['--installServer']
     )
 
@@ -72,13 +128,15 @@ def install_forge(mcv: str, mlv: str):
         create_install_scripts(f'forge-{mcv}-{mlv}.jar', mcv, force_old_java=True)
 
     print('Adding version specific files')
+    jvm_args: List[str] = []
 
     def apply_log4j_fix(file_url: str, file_name: str, no_lookup: bool = False):
         download_file(file_url, file_name)
-        with open('user_jvm_args.txt', mode='a') as file:
-            file.write(f'\n-Dlog4j.configurationFile={file_name}\n')
-            if no_lookup:
-                file.write('-Dlog4j2.formatMsgNoLookups=true\n')
+        args = [f'-Dlog4j.configurationFile={file_name}']
+        if no_lookup:
+            args.append('-Dlog4j2.formatMsgNoLookups=true')
+        add_jvm_args(args)
+        jvm_args.extend(args)
 
     if mcv == '1.16.4' or mcv == '1.16.5' or is_major_mc(mcv, '1.17') or is_major_mc(mcv, '1.18'):
         apply_log4j_fix('https://files.minecraftforge.net/log4shell/1.16.4/log4j2_server.xml', 'log4j2_server.xml', no_lookup=not is_major_mc(mcv, '1.16'))
@@ -88,36 +146,39 @@ def install_forge(mcv: str, mlv: str):
         apply_log4j_fix('https://files.minecraftforge.net/log4shell/1.12/log4j2_server.xml', 'log4j2_server.xml')
     elif is_major_mc(mcv, '1.7') or is_major_mc(mcv, '1.8') or is_major_mc(mcv, '1.9') or is_major_mc(mcv, '1.10') or is_major_mc(mcv, '1.11'):
         apply_log4j_fix('https://files.minecraftforge.net/log4shell/1.7/log4j2_server.xml', 'log4j2_server.xml')
+    return jvm_args
 
 
-def install_neoforge(mlv: str):
+def install_neoforge(installer_url: str):
     print('Installing NeoForge')
     run_installer(
-        f'https://maven.neoforged.net/releases/net/neoforged/neoforge/{mlv}/neoforge-{mlv}-installer.jar',
+        installer_url,
         ['--install-server']
     )
 
 
-def install_fabric(insv: str, mcv: str, mlv: str):
+def install_fabric(installer_url: str, mcv: str, mlv: str):
     print('Installing Fabric')
     run_installer(
-        f'https://maven.fabricmc.net/net/fabricmc/fabric-installer/{insv}/fabric-installer-{insv}.jar',
+        installer_url,
         ['server', '-dir', '.', '-mcversion', mcv, '-loader', mlv]
     )
     create_install_scripts('fabric-server-launch.jar', mcv)
 
 
-def install_quilt(insv: str, mcv: str, mlv: str):
+def install_quilt(installer_url: str, mcv: str, mlv: str):
     print('Installing Quilt')
     run_installer(
-        f'https://maven.quiltmc.org/repository/release/org/quiltmc/quilt-installer/{insv}/quilt-installer-{insv}.jar',
+        installer_url,
         ['install', 'server', mcv, mlv, '--install-dir=.', '--download-server']
     )
     create_install_scripts('quilt-server-launch.jar', mcv)
 
 
 def run_installer(url: str, args: List[str]):
-    download_file(url, 'installer.jar')
+    # Offline server packs ship with the installer
+    if not os.path.isfile('installer.jar'):
+        download_file(url, 'installer.jar')
     subprocess.check_call(['java', '-jar', 'installer.jar', *args])
 
     try:
@@ -145,6 +206,13 @@ def create_install_scripts(main_jar: str, mcv: str, force_old_java: bool = False
             file.write('pause\n')
 
 
+def add_jvm_args(args: List[str]):
+    if len(args) == 0:
+        return
+    with open('user_jvm_args.txt', mode='a') as file:
+        file.write('\n' + ''.join(arg + '\n' for arg in args))
+
+
 def is_old_java(mcv: str) -> bool:
     for ver in range(1, 17): # Until 1.16 minecraft uses java 8
         if is_major_mc(mcv, f'1.{ver}'):
@@ -156,22 +224,101 @@ def is_major_mc(mcv: str, expected: str) -> bool:
     return mcv == expected or mcv.startswith(expected + '.')
 
 
-def download_mod(file_url: str, file_name: str):
+def parse_mod(file_name: str, data: str) -> Mod:
+    size, sha1, url = data.split('/', 2)
+    return Mod(file_name, int(size), sha1.lower(), url)
+
+
+def download_mods(mods: List[Mod], workers: int, cache_dir: Optional[str]):
+    print(f'Installing {len(mods)} mods using {workers} workers')
+    if not os.path.isdir('mods'):
+        os.makedirs('mods')
+    if cache_dir is not None:
+        print(f'Using mod cache at {cache_dir}')
+        os.makedirs(cache_dir, exist_ok=True)
+    start = time.monotonic()
+    total_bytes = 0
+    downloaded = 0
+    failed = []
+    with ThreadPoolExecutor(max_workers=max(1, workers)) as executor:
+        futures = {executor.submit(install_mod, mod, cache_dir): mod.file_name for mod in mods}
+        for future in as_completed(futures):
+            try:
+                mod_bytes = future.result()
+                if mod_bytes is not None:
+                    total_bytes += mod_bytes
+                    downloaded += 1
+            except Exception as e:
+                print(f'Failed to download mod {futures[future]}: {e}')
+                failed.append(futures[future])
+    elapsed = time.monotonic() - start
+    print(f'Installed {len(mods) - len(failed)} of {len(mods)} mods in {elapsed:.1f}s: {downloaded} downloaded ({total_bytes / (1024 * 1024):.1f} MiB), {len(mods) - len(failed) - downloaded} reused')
+    if len(failed) > 0:
+        raise EnvironmentError(f'Failed to download mods: {", ".join(sorted(failed))}')
+
+
+# Returns the amount of downloaded bytes or None if an existing file was reused.
+def install_mod(mod: Mod, cache_dir: Optional[str]) -> Optional[int]:
+    target_path = 'mods' + os.path.sep + mod.file_name
+    if is_valid_file(target_path, mod):
+        return None
+    cache_path = None if cache_dir is None else os.path.join(cache_dir, mod.sha1[:2], mod.sha1 + '.jar')
+    if cache_path is not None and is_valid_file(cache_path, mod):
+        link_or_copy(cache_path, target_path)
+        print(f'Reused cached mod {mod.file_name}')
+        return None
+    mod_bytes = download_mod(mod)
+    if cache_path is not None:
+        try:
+            os.makedirs(os.path.dirname(cache_path), exist_ok=True)
+            shutil.copyfile(target_path, cache_path + f'.{os.getpid()}.part')
+            os.replace(cache_path + f'.{os.getpid()}.part', cache_path)
+        except OSError as e:
+            print(f'Failed to store {mod.file_name} in mod cache: {e}')
+    return mod_bytes
+
+
+def download_mod(mod: Mod) -> int:
     # CurseForge sometimes fails, so we need retries.
-    print(f'Downloading mod {file_name}')
+    target_path = 'mods' + os.path.sep + mod.file_name
     attempts = 0
     while True:
         try:
-            request = make_request(file_url)
-            response = urlopen(request)
-            with open('mods' + os.path.sep + file_name, mode='wb') as target:
-                target.write(response.read())
-            break
+            with urlopen(make_request(mod.url), timeout=DOWNLOAD_TIMEOUT) as response:
+                with open(target_path + '.part', mode='wb') as target:
+                    shutil.copyfileobj(response, target)
+            if not is_valid_file(target_path + '.part', mod):
+                raise IOError('Downloaded file does not match the expected size or sha1 hash')
+            os.replace(target_path + '.part', target_path)
+            print(f'Downloaded mod {mod.file_name}')
+            return os.path.getsize(target_path)
         except Exception as e:
             attempts += 1
-            if attempts > 10:
+            if attempts >= DOWNLOAD_ATTEMPTS:
+                if os.path.exists(target_path + '.part'):
+                    os.remove(target_path + '.part')
                 raise e
-            print('Retry download')
+            print(f'Retry download of {mod.file_name} ({attempts}/{DOWNLOAD_ATTEMPTS - 1})')
+            time.sleep(min(0.5 * (2 ** attempts), 10))
+
+
+def is_valid_file(path: str, mod: Mod) -> bool:
+    if not os.path.isfile(path) or os.path.getsize(path) != mod.size:
+        return False
+    digest = hashlib.sha1()
+    with open(path, mode='rb') as file:
+        for chunk in iter(lambda: file.read(65536), b''):
+            digest.update(chunk)
+    return digest.hexdigest() == mod.sha1
+
+
+def link_or_copy(source: str, target: str):
+    if os.path.exists(target):
+        os.remove(target)
+    try:
+        os.link(source, target)
+    except OSError:
+        shutil.copyfile(source, target)
 
 
 def download_file(file_url: str, file_name: str):
@@ -185,4 +332,9 @@ def make_request(file_url) -> Request:
 
 
 if __name__ == '__main__':
-    setup_server()
+    parser = argparse.ArgumentParser(description='Installs the PackDev server pack in the current directory.')
+    parser.add_argument('--phase', choices=['all', 'loader', 'mods', 'finish'], default='all', help='Install only a part of the server. Used for layered container builds.')
+    parser.add_argument('--workers', type=int, default=int(os.environ.get('PACKDEV_DOWNLOAD_WORKERS', DEFAULT_WORKERS)), help='Number of concurrent mod downloads. Defaults to $PACKDEV_DOWNLOAD_WORKERS or 8.')
+    parser.add_argument('--cache', default=os.environ.get('PACKDEV_MOD_CACHE'), help='Directory to reuse verified mod files from, shared between installations. Defaults to $PACKDEV_MOD_CACHE.')
+    args = parser.parse_args()
+    setup_server(args.phase, args.workers, args.cache)